@@ -0,0 +1,68 @@
+package com.crewmeister.challenge.loadtest;
+
+import com.crewmeister.challenge.dataset.DatasetSpec;
+import com.crewmeister.challenge.dataset.GeneratedDataset;
+import com.crewmeister.challenge.dataset.RatesDatasetGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application on a random port with a generated dataset, drives the configured request mix
+ * at a fixed arrival rate and writes throughput and latency percentiles per endpoint as JSON.
+ * Run with {@code ./gradlew loadTest}; see {@link LoadTestSettings} for the available properties.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    private static GeneratedDataset dataset;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void datasetProperties(DynamicPropertyRegistry registry) throws IOException {
+        Path file = Files.createTempFile("load-test-rates", ".csv");
+        file.toFile().deleteOnExit();
+        dataset = new RatesDatasetGenerator(DatasetSpec.of(SETTINGS.days(), SETTINGS.currencies(), SETTINGS.seed()))
+                .writeCsv(file);
+        registry.add("rates.file.name", () -> dataset.file().toUri().toString());
+        Path segments = Files.createTempDirectory("load-test-segments");
+        registry.add("rates.segments.dir", segments::toString);
+    }
+
+    @Test
+    void measureLatencyUnderLoad() throws Exception {
+        LoadTarget.Context context = new LoadTarget.Context(new Random(SETTINGS.seed()), dataset, SETTINGS.pageSize());
+        Map<String, Object> report = new OpenModelLoadGenerator("http://localhost:" + port, SETTINGS, context).run();
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(SETTINGS.report().toAbsolutePath().getParent());
+        mapper.writeValue(SETTINGS.report().toFile(), report);
+        System.out.println(mapper.writeValueAsString(report));
+
+        if (SETTINGS.sloP99Millis() != null) {
+            @SuppressWarnings("unchecked")
+            Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) report.get("endpoints");
+            endpoints.forEach((name, endpoint) -> {
+                @SuppressWarnings("unchecked")
+                double p99 = (Double) ((Map<String, Object>) endpoint.get("latencyMillis")).get("p99");
+                assertThat(p99).as("p99 latency of %s in ms", name).isLessThanOrEqualTo(SETTINGS.sloP99Millis());
+            });
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.crewmeister.challenge.loadtest;
+
+import com.crewmeister.challenge.dataset.GeneratedDataset;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The endpoints exercised by the load test and how to build a request for each of them.
+ * Dates and currencies are drawn from the generated dataset, so every request hits existing data.
+ */
+enum LoadTarget {
+
+    CONVERT("convert") {
+        @Override
+        String path(Context context) {
+            Quote quote = context.quote();
+            return "/v1/api/convert?currency=" + quote.currency() + "&amount=100&date=" + quote.date();
+        }
+    },
+    DATE("date") {
+        @Override
+        String path(Context context) {
+            return "/v1/api/rates/date?date=" + context.date();
+        }
+    },
+    DATE_CURRENCY("dateCurrency") {
+        @Override
+        String path(Context context) {
+            Quote quote = context.quote();
+            return "/v1/api/rates/date-currency?date=" + quote.date() + "&currency=" + quote.currency();
+        }
+    },
+    PAGE("page") {
+        @Override
+        String path(Context context) {
+            int pages = (int) Math.max(1, context.dataset().rateCount() / context.pageSize());
+            return "/v1/api/rates?page=" + context.random().nextInt(pages) + "&size=" + context.pageSize();
+        }
+    };
+
+    private final String key;
+
+    LoadTarget(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return the name used in the load mix and in the report
+     */
+    String key() {
+        return key;
+    }
+
+    abstract String path(Context context);
+
+    URI uri(String baseUrl, Context context) {
+        return URI.create(baseUrl + path(context));
+    }
+
+    static LoadTarget byKey(String key) {
+        for (LoadTarget target : values()) {
+            if (target.key.equals(key)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load target '" + key + "'");
+    }
+
+    /**
+     * Picks a target according to the weighted mix.
+     */
+    static LoadTarget pick(Map<LoadTarget, Integer> mix, int totalWeight, Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<LoadTarget, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    /**
+     * Random request parameters drawn from the dataset.
+     */
+    record Context(Random random, GeneratedDataset dataset, int pageSize) {
+
+        LocalDate date() {
+            return dataset.dates().get(random.nextInt(dataset.dates().size()));
+        }
+
+        /**
+         * Picks a date and currency the dataset holds a rate for, skipping blank cells and late listings.
+         */
+        Quote quote() {
+            List<LocalDate> dates = dataset.dates();
+            List<String> currencies = dataset.currencies();
+            while (true) {
+                int dateIndex = random.nextInt(dates.size());
+                int currencyIndex = random.nextInt(currencies.size());
+                if (dataset.hasRate(dateIndex, currencyIndex)) {
+                    return new Quote(dates.get(dateIndex), currencies.get(currencyIndex));
+                }
+            }
+        }
+    }
+
+    record Quote(LocalDate date, String currency) {
+    }
+}
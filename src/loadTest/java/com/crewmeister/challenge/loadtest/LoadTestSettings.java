@@ -0,0 +1,60 @@
+package com.crewmeister.challenge.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test configuration, read from {@code loadtest.*} system properties.
+ *
+ * @param requestsPerSecond fixed arrival rate across all endpoints
+ * @param duration          length of the measured phase
+ * @param warmup            length of the unmeasured phase preceding it
+ * @param mix               relative weight per endpoint name
+ * @param pageSize          page size used for {@code /rates} requests
+ * @param days              number of business days in the generated dataset
+ * @param currencies        number of currencies in the generated dataset
+ * @param seed              seed for dataset generation and request selection
+ * @param report            path of the JSON report
+ * @param sloP99Millis      optional p99 latency objective applied to every endpoint, {@code null} if not checked
+ */
+record LoadTestSettings(double requestsPerSecond, Duration duration, Duration warmup, Map<String, Integer> mix,
+                        int pageSize, int days, int currencies, long seed, Path report, Double sloP99Millis) {
+
+    static LoadTestSettings fromSystemProperties() {
+        String slo = System.getProperty("loadtest.slo.p99Millis");
+        return new LoadTestSettings(
+                Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT30S")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT5S")),
+                parseMix(System.getProperty("loadtest.mix", "convert=40,date=30,dateCurrency=20,page=10")),
+                Integer.parseInt(System.getProperty("loadtest.pageSize", "50")),
+                Integer.parseInt(System.getProperty("loadtest.days", "2500")),
+                Integer.parseInt(System.getProperty("loadtest.currencies", "40")),
+                Long.parseLong(System.getProperty("loadtest.seed", "42")),
+                Path.of(System.getProperty("loadtest.report", "build/reports/load-test/report.json")),
+                slo == null || slo.isBlank() ? null : Double.valueOf(slo));
+    }
+
+    /**
+     * Parses a mix such as {@code convert=40,date=30}.
+     */
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load mix entry '" + entry + "', expected name=weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(parts[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Load mix must contain at least one endpoint with positive weight");
+        }
+        return mix;
+    }
+}
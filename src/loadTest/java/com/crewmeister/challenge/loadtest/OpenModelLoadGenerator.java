@@ -0,0 +1,145 @@
+package com.crewmeister.challenge.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are issued on a fixed schedule regardless of how many are still in flight.
+ * Latency is measured from the intended send time rather than the actual one, which corrects for coordinated
+ * omission when the generator or the server falls behind.
+ */
+final class OpenModelLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final LoadTarget.Context context;
+    private final Map<LoadTarget, Integer> mix = new EnumMap<>(LoadTarget.class);
+    private final int totalWeight;
+    private final Map<LoadTarget, Stats> stats = new EnumMap<>(LoadTarget.class);
+
+    OpenModelLoadGenerator(String baseUrl, LoadTestSettings settings, LoadTarget.Context context) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.context = context;
+        settings.mix().forEach((key, weight) -> mix.put(LoadTarget.byKey(key), weight));
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        mix.keySet().forEach(target -> stats.put(target, new Stats()));
+    }
+
+    /**
+     * Runs the warmup and the measured phase, then waits for outstanding responses.
+     *
+     * @return report keyed by endpoint name
+     */
+    Map<String, Object> run() throws InterruptedException {
+        ExecutorService responseExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .executor(responseExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ConcurrentLinkedQueue<CompletableFuture<?>> inFlight = new ConcurrentLinkedQueue<>();
+        Random random = context.random();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.requestsPerSecond());
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                LoadTarget target = LoadTarget.pick(mix, totalWeight, random);
+                HttpRequest request = HttpRequest.newBuilder(target.uri(baseUrl, context))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                boolean measured = intended >= measureFrom;
+                CompletableFuture<HttpResponse<Void>> future = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+                inFlight.add(future.whenComplete((response, error) -> {
+                    if (measured) {
+                        // Every request targets existing data, so anything but a 2xx is a failure
+                        boolean failed = error != null || response.statusCode() / 100 != 2;
+                        stats.get(target).record(System.nanoTime() - intended, failed);
+                    }
+                }));
+                if ((i & 1023) == 0) {
+                    inFlight.removeIf(CompletableFuture::isDone);
+                }
+            }
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                    .exceptionally(error -> null)
+                    .join();
+        } finally {
+            responseExecutor.shutdown();
+            responseExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        return report();
+    }
+
+    private Map<String, Object> report() {
+        double seconds = settings.duration().toNanos() / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((target, endpointStats) -> {
+            Histogram histogram = endpointStats.recorder.getIntervalHistogram();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", toMillis(histogram.getValueAtPercentile(50)));
+            latency.put("p99", toMillis(histogram.getValueAtPercentile(99)));
+            latency.put("p999", toMillis(histogram.getValueAtPercentile(99.9)));
+            latency.put("max", toMillis(histogram.getMaxValue()));
+
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("requests", histogram.getTotalCount());
+            endpoint.put("errors", endpointStats.errors.sum());
+            endpoint.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+            endpoint.put("latencyMillis", latency);
+            endpoints.put(target.key(), endpoint);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRequestsPerSecond", settings.requestsPerSecond());
+        report.put("durationSeconds", seconds);
+        report.put("mix", settings.mix());
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Stats {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long latencyNanos, boolean failed) {
+            recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.crewmeister.challenge.cache;
+
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.segment.RateSegmentStore;
+import com.crewmeister.challenge.util.CompactRateTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds all stored rates in a {@link CompactRateTable} so that single-rate lookups never reach the database.
+ * The table is rebuilt after every import and swapped in atomically; readers never block.
+ * Its listeners run first so that other views derived from the table see the new data.
+ */
+@Component
+public class CompactRateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactRateStore.class);
+
+    /** Order of the rebuild listeners; listeners reading from this store must use a higher value. */
+    public static final int LISTENER_ORDER = 0;
+
+    private final CurrencyRateRepository currencyRateRepository;
+    private final RateSegmentStore rateSegmentStore;
+    private final AtomicReference<CompactRateTable> table = new AtomicReference<>(CompactRateTable.empty());
+
+    @Autowired
+    public CompactRateStore(CurrencyRateRepository currencyRateRepository, RateSegmentStore rateSegmentStore) {
+        this.currencyRateRepository = currencyRateRepository;
+        this.rateSegmentStore = rateSegmentStore;
+    }
+
+    /**
+     * Looks up a rate in the current table.
+     *
+     * @param date     the rate date
+     * @param currency the currency name
+     * @return the rate, or empty if the table does not hold it
+     */
+    public OptionalDouble find(LocalDate date, String currency) {
+        return table.get().find(date, currency);
+    }
+
+    /**
+     * @return the table currently served
+     */
+    public CompactRateTable current() {
+        return table.get();
+    }
+
+    /**
+     * Loads the table once the context is refreshed, before the startup runners import and warm up.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(LISTENER_ORDER)
+    public void onApplicationStarted() {
+        rebuildQuietly();
+    }
+
+    @EventListener
+    @Order(LISTENER_ORDER)
+    public void onRatesImported(RatesImportedEvent event) {
+        rebuildQuietly();
+    }
+
+    /**
+     * Rebuilds without failing the caller: the rates are already committed, so startup and the listeners after
+     * this one must still run. Until the next rebuild, lookups missing from the old table fall back to the database.
+     */
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild the compact rate table, keeping the previous one", e);
+        }
+    }
+
+    /**
+     * Reloads all rates from the segments of closed years and the database into a new table.
+     * Database rows are added last, so they win over segment values for the same date and currency.
+     */
+    public void rebuild() {
+        List<RateValue> values = new ArrayList<>(rateSegmentStore.findAll());
+        values.addAll(currencyRateRepository.findAllRateValues());
+        CompactRateTable.Builder builder = new CompactRateTable.Builder();
+        for (RateValue value : values) {
+            builder.add(value.date(), value.currencyName(), value.rate());
+        }
+        CompactRateTable rebuilt = builder.build();
+        table.set(rebuilt);
+        logger.info("Compact rate table rebuilt: {} rates in {} KB", values.size(), rebuilt.columnBytes() / 1024);
+    }
+}
@@ -0,0 +1,67 @@
+package com.crewmeister.challenge.cache;
+
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts Hibernate second-level and query cache regions when an import lands new data.
+ * The importer writes rates with plain JDBC, bypassing Hibernate's own invalidation,
+ * so cached query results would otherwise miss the new rows. Besides clearing the regions, the rate tables are
+ * marked as updated in the timestamps cache: a query that read the old rows but stores its result only after the
+ * eviction is then still recognized as stale.
+ * Eviction runs before the other import listeners, so that listeners querying the database see fresh results.
+ */
+@Component
+public class HibernateCacheEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(HibernateCacheEvictor.class);
+
+    /** Tables written by the importer, as Hibernate names their query spaces. */
+    private static final String[] IMPORTED_QUERY_SPACES = {"currency_rates", "currency"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public HibernateCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Clears the rate regions and all query result regions after an import.
+     *
+     * @param event the import that completed
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onRatesImported(RatesImportedEvent event) {
+        evictAll();
+        logger.info("Evicted rate caches after import of {} rates", event.insertedRates().size());
+    }
+
+    /**
+     * Clears the entity and query regions holding currency data and invalidates the imported query spaces,
+     * so query results computed before this call are never served from the cache again.
+     */
+    public void evictAll() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+            sessionFactory.getCache().getTimestampsCache().invalidate(IMPORTED_QUERY_SPACES, session);
+        }
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(CurrencyRates.class);
+        cache.evictEntityData(Currency.class);
+        cache.evictQueryRegions();
+    }
+}
@@ -0,0 +1,14 @@
+package com.crewmeister.challenge.cache;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Pre-rendered rates of the most recent date, see {@link LatestRatesStore}.
+ *
+ * @param date  the most recent date with rates
+ * @param body  the rates of that date serialized as JSON, identical to the {@code /rates/date} response
+ * @param etag  strong entity tag of {@code body}
+ * @param rates rate to EUR by currency name
+ */
+public record LatestRates(LocalDate date, byte[] body, String etag, Map<String, Double> rates) { }
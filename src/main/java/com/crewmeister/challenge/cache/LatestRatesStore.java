@@ -0,0 +1,106 @@
+package com.crewmeister.challenge.cache;
+
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.mapper.CurrencyRatesMapper;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the rates of the most recent date as a fully rendered JSON response.
+ * The snapshot is rebuilt after every import and swapped in atomically, so serving it
+ * needs no database access, mapping or serialization.
+ */
+@Component
+public class LatestRatesStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatestRatesStore.class);
+
+    private final CompactRateStore compactRateStore;
+    private final CurrencyRatesService currencyRatesService;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<LatestRates> latest = new AtomicReference<>();
+
+    @Autowired
+    public LatestRatesStore(CompactRateStore compactRateStore, CurrencyRatesService currencyRatesService,
+                            ObjectMapper objectMapper) {
+        this.compactRateStore = compactRateStore;
+        this.currencyRatesService = currencyRatesService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the current snapshot
+     * @throws NoSuchElementException if no rates are stored yet
+     */
+    public LatestRates current() {
+        LatestRates current = latest.get();
+        if (current == null) {
+            throw new NoSuchElementException("No rates available yet");
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(CompactRateStore.LISTENER_ORDER + 5)
+    public void onApplicationStarted() {
+        rebuildQuietly();
+    }
+
+    @EventListener
+    @Order(CompactRateStore.LISTENER_ORDER + 5)
+    public void onRatesImported(RatesImportedEvent event) {
+        rebuildQuietly();
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // The snapshot is derived data; a failure here must not fail the import or the listeners after this one
+            logger.error("Failed to rebuild the latest rates snapshot, keeping the previous one", e);
+        }
+    }
+
+    /**
+     * Renders the rates of the last date in the compact table, which covers both the database and the segments.
+     */
+    public void rebuild() {
+        LocalDate date = compactRateStore.current().lastDate();
+        if (date == null) {
+            latest.set(null);
+            return;
+        }
+        List<CurrencyRates> currencyRates = currencyRatesService.getCurrencyRatesByDate(date);
+        List<CurrencyRatesDTO> dtos = CurrencyRatesMapper.INSTANCE.toDtoList(currencyRates);
+        Map<String, Double> rates = new HashMap<>();
+        for (CurrencyRatesDTO dto : dtos) {
+            rates.put(dto.currency().currencyName(), dto.rate());
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(dtos);
+            String etag = "\"" + date + "-" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            latest.set(new LatestRates(date, body, etag, Map.copyOf(rates)));
+            logger.info("Latest rates snapshot rebuilt for {}: {} rates in {} bytes", date, dtos.size(), body.length);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to render latest rates for {}, keeping the previous snapshot: {}", date, e.getMessage());
+        }
+    }
+}
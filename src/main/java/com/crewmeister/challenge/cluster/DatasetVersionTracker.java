@@ -0,0 +1,130 @@
+package com.crewmeister.challenge.cluster;
+
+import com.crewmeister.challenge.config.DataSourceConfig;
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.repository.ImportBatchRepository;
+import com.crewmeister.challenge.segment.RateSegmentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Tells instances about rate changes made by other instances through the {@code dataset_version} row.
+ * The instance that changes the data bumps the version; all instances poll it with a primary key lookup
+ * and, when it moved, reload their segments and publish a {@link RatesImportedEvent} without rates
+ * so that caches and derived views refresh as they do after a local import.
+ * The event carries the dates of the rates imported since the last poll, read from the change feed,
+ * so that subscribers of this instance are pushed the new rates as well.
+ */
+@Component
+public class DatasetVersionTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetVersionTracker.class);
+
+    static final String DATASET = "rates";
+
+    private static final String SELECT_SQL = "SELECT version FROM dataset_version WHERE name = ?";
+    private static final String BUMP_SQL = "UPDATE dataset_version SET version = version + 1, updated_at = ? WHERE name = ?";
+    private static final String INSERT_SQL = "INSERT INTO dataset_version (name, version, updated_at) VALUES (?, 1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RateSegmentStore rateSegmentStore;
+    private final CurrencyRateRepository currencyRateRepository;
+    private final ImportBatchRepository importBatchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile long seenVersion;
+    /** Latest import whose rates this instance already knows about. */
+    private long seenImport;
+
+    @Autowired
+    public DatasetVersionTracker(@Qualifier(DataSourceConfig.WRITE_DATA_SOURCE) DataSource dataSource,
+                                 RateSegmentStore rateSegmentStore,
+                                 CurrencyRateRepository currencyRateRepository,
+                                 ImportBatchRepository importBatchRepository,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.rateSegmentStore = rateSegmentStore;
+        this.currencyRateRepository = currencyRateRepository;
+        this.importBatchRepository = importBatchRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public synchronized void onApplicationStarted() {
+        seenVersion = currentVersion();
+        seenImport = importBatchRepository.findLatestCompletedVersion();
+    }
+
+    /**
+     * Bumps the version after this instance imported rates. Events of remote changes carry no rates and are ignored.
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onRatesImported(RatesImportedEvent event) {
+        if (!event.insertedRates().isEmpty()) {
+            bump();
+        }
+    }
+
+    /**
+     * Records a change of the rates made by this instance.
+     */
+    public synchronized void bump() {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (jdbcTemplate.update(BUMP_SQL, now, DATASET) == 0) {
+            jdbcTemplate.update(INSERT_SQL, DATASET, now);
+        }
+        seenVersion = currentVersion();
+        seenImport = importBatchRepository.findLatestCompletedVersion();
+    }
+
+    /**
+     * Checks whether another instance changed the rates and refreshes local state if so.
+     */
+    @Scheduled(fixedDelayString = "${cluster.version-poll-millis:5000}")
+    public synchronized void poll() {
+        long version = currentVersion();
+        if (version == seenVersion) {
+            return;
+        }
+        logger.info("Rates changed by another instance (version {} -> {}), refreshing", seenVersion, version);
+        seenVersion = version;
+        try {
+            rateSegmentStore.load();
+        } catch (IOException e) {
+            logger.error("Failed to reload rate segments: {}", e.getMessage());
+        }
+        long latestImport = importBatchRepository.findLatestCompletedVersion();
+        SortedSet<LocalDate> dates = new TreeSet<>(latestImport > seenImport
+                ? currencyRateRepository.findDatesByVersionBetween(seenImport, latestImport) : List.of());
+        seenImport = latestImport;
+        eventPublisher.publishEvent(RatesImportedEvent.remote(dates));
+    }
+
+    /**
+     * @return the current version, or 0 if the rates never changed
+     */
+    public long currentVersion() {
+        List<Long> versions = jdbcTemplate.queryForList(SELECT_SQL, Long.class, DATASET);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+}
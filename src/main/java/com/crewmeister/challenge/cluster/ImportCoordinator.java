@@ -0,0 +1,55 @@
+package com.crewmeister.challenge.cluster;
+
+import com.crewmeister.challenge.repository.ImportBatchRepository;
+import com.crewmeister.challenge.service.CSVProcessingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Runs the rates import on exactly one instance at a time.
+ * Every instance triggers the import on startup and on schedule, but only the one holding the
+ * {@value #IMPORT_LOCK} lease performs it; the others pick up the result through {@link DatasetVersionTracker}.
+ */
+@Component
+public class ImportCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportCoordinator.class);
+
+    /** Lease serializing all writes of rates data across instances. */
+    public static final String IMPORT_LOCK = "rates-import";
+
+    private final LeaseLock leaseLock;
+    private final CSVProcessingService csvProcessingService;
+    private final ImportBatchRepository importBatchRepository;
+
+    @Autowired
+    public ImportCoordinator(LeaseLock leaseLock, CSVProcessingService csvProcessingService,
+                             ImportBatchRepository importBatchRepository) {
+        this.leaseLock = leaseLock;
+        this.csvProcessingService = csvProcessingService;
+        this.importBatchRepository = importBatchRepository;
+    }
+
+    /**
+     * Imports the rates file daily at 1 AM, unless another instance is already importing.
+     * Imports left incomplete by an instance that died are completed first; the rates they committed are kept
+     * and this import adds the missing ones. Imports younger than the lease time are left open, because their
+     * holder may still be stopping after losing the lease.
+     */
+    @Scheduled(cron = "${rates.import.cron:0 0 1 * * *}")
+    public void runImport() {
+        leaseLock.runExclusively(IMPORT_LOCK, () -> {
+            Instant now = Instant.now();
+            int abandoned = importBatchRepository.completeAbandoned(now, now.minus(leaseLock.leaseTime()));
+            if (abandoned > 0) {
+                logger.warn("Completed {} import(s) abandoned by a failed instance", abandoned);
+            }
+            csvProcessingService.processCSV();
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package com.crewmeister.challenge.cluster;
+
+import com.crewmeister.challenge.config.DataSourceConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lease-based lock shared by all instances through the {@code import_lock} table.
+ * Acquiring is a single conditional update that only succeeds if the lease expired or is already ours,
+ * falling back to an insert the first time a lock is used. While work runs, a heartbeat extends the lease;
+ * if the holder dies, the lease expires and another instance takes it over.
+ * A holder that fails to extend its lease, or whose last extension is older than two thirds of the lease time,
+ * considers the lease lost; long-running work polls {@link #isLost(String)} and stops before another instance
+ * may have taken over.
+ *
+ * <p>Lease times come from the instance clocks, so they must be long compared to the clock skew between instances.
+ */
+@Component
+public class LeaseLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseLock.class);
+
+    private static final String UPDATE_SQL = "UPDATE import_lock SET owner = ?, locked_at = ?, locked_until = ? "
+            + "WHERE name = ? AND (locked_until <= ? OR owner = ?)";
+    private static final String INSERT_SQL = "INSERT INTO import_lock (name, owner, locked_at, locked_until) VALUES (?, ?, ?, ?)";
+    private static final String EXTEND_SQL = "UPDATE import_lock SET locked_until = ? WHERE name = ? AND owner = ? AND locked_until > ?";
+    private static final String RELEASE_SQL = "UPDATE import_lock SET locked_until = ? WHERE name = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration leaseTime;
+    private final String owner;
+    private final ScheduledExecutorService heartbeats;
+    /** Leases currently held by a task running on this instance, by lock name. */
+    private final Map<String, HeldLease> held = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LeaseLock(@Qualifier(DataSourceConfig.WRITE_DATA_SOURCE) DataSource dataSource,
+                     @Value("${cluster.lock.lease-millis:300000}") long leaseMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.leaseTime = Duration.ofMillis(leaseMillis);
+        this.owner = hostName() + ":" + UUID.randomUUID();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the task while holding the named lease, unless another instance holds it.
+     * The lease is extended every third of the lease time while the task runs and released afterwards.
+     *
+     * @param name the lock name
+     * @param task the work to run exclusively
+     * @return whether the task ran
+     */
+    public boolean runExclusively(String name, Runnable task) {
+        if (!tryAcquire(name)) {
+            logger.info("Lock '{}' is held by another instance, skipping", name);
+            return false;
+        }
+        HeldLease lease = new HeldLease(leaseTime);
+        held.put(name, lease);
+        long heartbeatMillis = Math.max(1, leaseTime.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> {
+            boolean extended;
+            try {
+                extended = extend(name);
+            } catch (RuntimeException e) {
+                // An exception would cancel the heartbeat for good; treat it as a failed extension
+                extended = false;
+            }
+            if (extended) {
+                lease.renewed();
+            } else if (lease.lose()) {
+                logger.warn("Lost lock '{}' while still working; stopping the work", name);
+            }
+        }, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        try {
+            task.run();
+            return true;
+        } finally {
+            heartbeat.cancel(false);
+            held.remove(name);
+            release(name);
+        }
+    }
+
+    /**
+     * Tells work running under {@link #runExclusively} whether it must stop because the lease may be lost.
+     *
+     * @param name the lock name
+     * @return true if a task holds the lease through this instance and its lease could not be kept alive
+     */
+    public boolean isLost(String name) {
+        HeldLease lease = held.get(name);
+        return lease != null && lease.isLost();
+    }
+
+    /**
+     * @return how long a lease lasts without being extended
+     */
+    public Duration leaseTime() {
+        return leaseTime;
+    }
+
+
+    /**
+     * Acquires the lease if it is free, expired or already held by this instance.
+     *
+     * @return whether this instance now holds the lease
+     */
+    public boolean tryAcquire(String name) {
+        Instant now = Instant.now();
+        Timestamp until = Timestamp.from(now.plus(leaseTime));
+        int updated = jdbcTemplate.update(UPDATE_SQL, owner, Timestamp.from(now), until, name, Timestamp.from(now), owner);
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, name, owner, Timestamp.from(now), until);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Extends a lease this instance still holds.
+     *
+     * @return whether the lease was still ours and has been extended
+     */
+    public boolean extend(String name) {
+        Instant now = Instant.now();
+        return jdbcTemplate.update(EXTEND_SQL, Timestamp.from(now.plus(leaseTime)), name, owner, Timestamp.from(now)) > 0;
+    }
+
+    /**
+     * Releases the lease early so other instances need not wait for it to expire.
+     */
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE_SQL, Timestamp.from(Instant.now()), name, owner);
+    }
+
+    /**
+     * @return the identity this instance uses as lease owner
+     */
+    public String owner() {
+        return owner;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Local view of a lease held by a running task. Once lost it stays lost, even if a later extension succeeds,
+     * because the task may already have been told to stop. Without a successful extension the lease counts as lost
+     * a third of the lease time before it would expire, leaving a margin for writes in flight.
+     */
+    private static final class HeldLease {
+
+        private final long graceNanos;
+        private final AtomicBoolean lost = new AtomicBoolean();
+        private volatile long renewedAtNanos = System.nanoTime();
+
+        HeldLease(Duration leaseTime) {
+            this.graceNanos = leaseTime.toNanos() * 2 / 3;
+        }
+
+        void renewed() {
+            renewedAtNanos = System.nanoTime();
+        }
+
+        /**
+         * @return true if this call marked the lease as lost
+         */
+        boolean lose() {
+            return lost.compareAndSet(false, true);
+        }
+
+        boolean isLost() {
+            return lost.get() || System.nanoTime() - renewedAtNanos > graceNanos;
+        }
+    }
+}
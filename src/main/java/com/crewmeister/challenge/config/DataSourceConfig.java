@@ -0,0 +1,67 @@
+package com.crewmeister.challenge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits database access over two independently sized connection pools.
+ * Read-only transactions are routed to the read pool, everything else to the write pool,
+ * so a long running import cannot exhaust the connections API reads depend on.
+ * The read pool points at {@code app.datasource.read.url}, which defaults to the primary database
+ * and can be set to a replica.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    public static final String WRITE_DATA_SOURCE = "writeDataSource";
+    public static final String READ_DATA_SOURCE = "readDataSource";
+
+    @Bean(name = WRITE_DATA_SOURCE, destroyMethod = "close")
+    public HikariDataSource writeDataSource(DataSourceProperties properties,
+                                            @Value("${app.datasource.write.maximum-pool-size:6}") int maximumPoolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("write-pool");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        return dataSource;
+    }
+
+    @Bean(name = READ_DATA_SOURCE, destroyMethod = "close")
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${app.datasource.read.url:}") String url,
+                                           @Value("${app.datasource.read.username:}") String username,
+                                           @Value("${app.datasource.read.password:}") String password,
+                                           @Value("${app.datasource.read.maximum-pool-size:16}") int maximumPoolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!url.isBlank()) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username.isBlank() ? properties.determineUsername() : username);
+            dataSource.setPassword(password.isBlank() ? properties.determinePassword() : password);
+        }
+        dataSource.setPoolName("read-pool");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The data source used by JPA and everything else that does not ask for a specific pool.
+     * Physical connections are fetched lazily, once the transaction's read-only flag is known,
+     * from the read pool for read-only transactions and from the write pool otherwise.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(WRITE_DATA_SOURCE) DataSource writeDataSource,
+                                 @Qualifier(READ_DATA_SOURCE) DataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+}
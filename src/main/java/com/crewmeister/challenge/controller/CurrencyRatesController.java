@@ -2,30 +2,60 @@ package com.crewmeister.challenge.controller;
 
 import com.crewmeister.challenge.dto.CurrencyDTO;
 import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.dto.DateRatesDTO;
+import com.crewmeister.challenge.dto.RateChangesDTO;
+import com.crewmeister.challenge.dto.RatesByDatesRequest;
+import com.crewmeister.challenge.limit.Bulkhead;
 import com.crewmeister.challenge.mapper.CurrencyMapper;
 import com.crewmeister.challenge.mapper.CurrencyRatesMapper;
 import com.crewmeister.challenge.model.Currency;
 import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.reactive.ReactiveConfig;
 import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.crewmeister.challenge.util.ChangeToken;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
+import static com.crewmeister.challenge.timing.RequestTimings.Phase.MAPPING;
+import static com.crewmeister.challenge.timing.RequestTimings.time;
+
+/**
+ * Rate lookups, conversions and paging run in separate bulkheads, so expensive paging cannot starve cheap lookups.
+ */
 @Slf4j
 @RestController
+@Profile("!" + ReactiveConfig.PROFILE)
 @RequestMapping("/v1/api")
 public class CurrencyRatesController {
 
+    /** Upper bound for the number of rates returned by one change feed request. */
+    private static final int MAX_CHANGES_LIMIT = 10_000;
+
+    /** Upper bound for the number of dates in one bulk lookup. */
+    private static final int MAX_BULK_DATES = 1_000;
+
     private final CurrencyRatesService currencyRatesService;
 
     @Autowired
@@ -37,10 +67,11 @@ public class CurrencyRatesController {
      * Retrieve all supported currencies.
      */
     @GetMapping("/currencies")
+    @Bulkhead("lookup")
     public ResponseEntity<List<CurrencyDTO>> getAllCurrencies() {
-        log.info("Fetching all available currencies");
+        log.debug("Fetching all available currencies");
         List<Currency> currencies = currencyRatesService.getAllCurrencies();
-        List<CurrencyDTO> currencyDto = CurrencyMapper.INSTANCE.toDtoList(currencies);
+        List<CurrencyDTO> currencyDto = time(MAPPING, () -> CurrencyMapper.INSTANCE.toDtoList(currencies));
         return ResponseEntity.ok(currencyDto);
     }
 
@@ -48,10 +79,11 @@ public class CurrencyRatesController {
      * Retrieve paginated currency exchange rates.
      */
     @GetMapping("/rates")
+    @Bulkhead("paging")
     public ResponseEntity<Page<CurrencyRatesDTO>> getAllCurrencyRates(Pageable pageable) {
-        log.info("Fetching all currency rates (page: {}, size: {}).", pageable.getPageNumber(), pageable.getPageSize());
+        log.debug("Fetching all currency rates (page: {}, size: {}).", pageable.getPageNumber(), pageable.getPageSize());
         Page<CurrencyRates> currencyRates = currencyRatesService.getAllCurrencyRates(pageable);
-        Page<CurrencyRatesDTO> rates = currencyRates.map(CurrencyRatesMapper.INSTANCE::toDto);
+        Page<CurrencyRatesDTO> rates = time(MAPPING, () -> currencyRates.map(CurrencyRatesMapper.INSTANCE::toDto));
         return ResponseEntity.ok(rates);
     }
 
@@ -59,24 +91,65 @@ public class CurrencyRatesController {
      * Retrieve exchange rates for all currencies on a specific date.
      */
     @GetMapping("/rates/date")
+    @Bulkhead("lookup")
     public ResponseEntity<List<CurrencyRatesDTO>> getCurrencyRatesByDate(
             @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        log.info("Fetching currency rates for date: {}", date);
+        log.debug("Fetching currency rates for date: {}", date);
         List<CurrencyRates> currencyRates = currencyRatesService.getCurrencyRatesByDate(date);
-        List<CurrencyRatesDTO> rates = CurrencyRatesMapper.INSTANCE.toDtoList(currencyRates);
+        List<CurrencyRatesDTO> rates = time(MAPPING, () -> CurrencyRatesMapper.INSTANCE.toDtoList(currencyRates));
         return ResponseEntity.ok(rates);
     }
 
+    /**
+     * Retrieve exchange rates for a set of dates in one request, grouped by date.
+     * Every requested date appears once in the response, in ascending order, even if no rates are stored for it.
+     */
+    @PostMapping("/rates/dates")
+    @Bulkhead("paging")
+    public ResponseEntity<List<DateRatesDTO>> getCurrencyRatesByDates(@RequestBody RatesByDatesRequest request) {
+        if (request.dates() == null || request.dates().isEmpty()) {
+            throw new IllegalArgumentException("At least one date is required");
+        }
+        if (request.dates().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Dates must not be null");
+        }
+        if (request.currencies() != null && request.currencies().stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Currencies must not be null");
+        }
+        SortedSet<LocalDate> dates = new TreeSet<>(request.dates());
+        if (dates.size() > MAX_BULK_DATES) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_DATES + " dates can be requested at once");
+        }
+        Set<String> currencies = request.currencies() == null ? Set.of() : new LinkedHashSet<>(request.currencies());
+        log.debug("Fetching currency rates for {} dates and currencies {}", dates.size(), currencies);
+
+        List<CurrencyRates> currencyRates = currencyRatesService.getCurrencyRatesByDates(dates, currencies);
+        List<DateRatesDTO> result = time(MAPPING, () -> {
+            Map<LocalDate, List<CurrencyRatesDTO>> ratesByDate = new LinkedHashMap<>();
+            for (LocalDate date : dates) {
+                ratesByDate.put(date, new ArrayList<>());
+            }
+            for (CurrencyRates currencyRate : currencyRates) {
+                ratesByDate.get(currencyRate.getDate()).add(CurrencyRatesMapper.INSTANCE.toDto(currencyRate));
+            }
+            List<DateRatesDTO> grouped = new ArrayList<>(ratesByDate.size());
+            ratesByDate.forEach((date, rates) -> grouped.add(new DateRatesDTO(date, rates)));
+            return grouped;
+        });
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Retrieve a specific exchange rate by date and currency code.
      */
     @GetMapping("/rates/date-currency")
+    @Bulkhead("lookup")
     public ResponseEntity<CurrencyRatesDTO> getCurrencyRatesByDateAndCurrency(
             @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam("currency") String currency) {
-        log.info("Fetching rate for date: {} and currency: {}", date, currency);
+        log.debug("Fetching rate for date: {} and currency: {}", date, currency);
         CurrencyRates currencyRates = currencyRatesService.getCurrencyRateByDateAndCurrency(date, currency);
-        CurrencyRatesDTO currencyRatesDTO = CurrencyRatesMapper.INSTANCE.toDto(currencyRates);
+        CurrencyRatesDTO currencyRatesDTO = time(MAPPING, () -> CurrencyRatesMapper.INSTANCE.toDto(currencyRates));
         return ResponseEntity.ok(currencyRatesDTO);
     }
 
@@ -84,12 +157,36 @@ public class CurrencyRatesController {
      * Convert a given amount from a currency to EUR on a specific date.
      */
     @GetMapping("/convert")
+    @Bulkhead("convert")
     public ResponseEntity<Double> convertToEur(
             @RequestParam String currency,
             @RequestParam double amount,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        log.info("Converting {} {} to EUR for date {}", amount, currency, date);
+        log.debug("Converting {} {} to EUR for date {}", amount, currency, date);
         Double result = currencyRatesService.convertToEur(currency, amount, date);
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * Retrieve rates added after a change feed position, for incremental client sync.
+     * Pass the returned {@code nextToken} as {@code since} on the next call; start with {@code 0}.
+     */
+    @GetMapping("/rates/changes")
+    @Bulkhead("paging")
+    public ResponseEntity<RateChangesDTO> getRateChanges(
+            @RequestParam(value = "since", defaultValue = "0") String since,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        log.debug("Fetching rate changes since {} (limit: {})", since, limit);
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CHANGES_LIMIT);
+        }
+        ChangeToken position = ChangeToken.parse(since);
+        List<CurrencyRates> changes = currencyRatesService.getRateChanges(position, limit + 1);
+        boolean hasMore = changes.size() > limit;
+        List<CurrencyRates> page = hasMore ? changes.subList(0, limit) : changes;
+        ChangeToken next = page.isEmpty() ? position
+                : new ChangeToken(page.get(page.size() - 1).getVersion(), page.get(page.size() - 1).getId());
+        List<CurrencyRatesDTO> rates = time(MAPPING, () -> CurrencyRatesMapper.INSTANCE.toDtoList(page));
+        return ResponseEntity.ok(new RateChangesDTO(rates, next.toString(), hasMore));
+    }
 }
@@ -0,0 +1,74 @@
+package com.crewmeister.challenge.controller;
+
+import com.crewmeister.challenge.cache.LatestRates;
+import com.crewmeister.challenge.cache.LatestRatesStore;
+import com.crewmeister.challenge.limit.Bulkhead;
+import com.crewmeister.challenge.reactive.ReactiveConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Serves the rates of the most recent date from the pre-rendered snapshot in {@link LatestRatesStore}.
+ * These are the most requested endpoints, so they do no database access, mapping or JSON encoding.
+ */
+@RestController
+@Profile("!" + ReactiveConfig.PROFILE)
+@RequestMapping("/v1/api")
+public class LatestRatesController {
+
+    /** Response header carrying the date of the rates used. */
+    static final String RATES_DATE_HEADER = "Rates-Date";
+
+    private final LatestRatesStore latestRatesStore;
+
+    @Autowired
+    public LatestRatesController(LatestRatesStore latestRatesStore) {
+        this.latestRatesStore = latestRatesStore;
+    }
+
+    /**
+     * Retrieve exchange rates for all currencies on the most recent date.
+     * The response body equals that of {@code /rates/date} for that date; clients may revalidate with its ETag.
+     */
+    @GetMapping("/rates/latest")
+    @Bulkhead("lookup")
+    public ResponseEntity<byte[]> getLatestRates(WebRequest request) {
+        LatestRates latest = latestRatesStore.current();
+        if (request.checkNotModified(latest.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(latest.etag())
+                .header(RATES_DATE_HEADER, latest.date().toString())
+                .body(latest.body());
+    }
+
+    /**
+     * Convert a given amount from a currency to EUR at the most recent rate.
+     */
+    @GetMapping("/convert/latest")
+    @Bulkhead("convert")
+    public ResponseEntity<Double> convertToEurLatest(@RequestParam String currency, @RequestParam double amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must be non-negative");
+        }
+        LatestRates latest = latestRatesStore.current();
+        Double rate = latest.rates().get(currency);
+        if (rate == null) {
+            throw new NoSuchElementException("No rate for currency " + currency + " on " + latest.date());
+        }
+        return ResponseEntity.ok()
+                .header(RATES_DATE_HEADER, latest.date().toString())
+                .body(rate * amount);
+    }
+}
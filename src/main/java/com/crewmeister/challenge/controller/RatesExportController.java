@@ -0,0 +1,127 @@
+package com.crewmeister.challenge.controller;
+
+import com.crewmeister.challenge.reactive.ReactiveConfig;
+import com.crewmeister.challenge.service.RatesExportService;
+import com.crewmeister.challenge.service.RatesExportService.ExportFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+@Slf4j
+@RestController
+@Profile("!" + ReactiveConfig.PROFILE)
+@RequestMapping("/v1/api/rates")
+public class RatesExportController {
+
+    /** Request attributes through which Tomcat serves a file region with sendfile. */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final RatesExportService ratesExportService;
+
+    @Autowired
+    public RatesExportController(RatesExportService ratesExportService) {
+        this.ratesExportService = ratesExportService;
+    }
+
+    /**
+     * Download all exchange rates in the {@code exchange_rates.csv} layout, optionally gzip-compressed.
+     * Supports single byte ranges and conditional requests; the body is sent with sendfile where the
+     * connector supports it and {@link FileChannel#transferTo} otherwise.
+     */
+    @GetMapping({"/export.csv", "/export.csv.gz"})
+    public void exportCsv(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzip = request.getRequestURI().endsWith(".gz");
+        ExportFile export = ratesExportService.currentExport(gzip)
+                .orElseThrow(() -> new NoSuchElementException("Rate export has not been materialized yet"));
+        log.debug("Serving rate export {} to {}", export.path(), request.getRemoteAddr());
+
+        response.setHeader(HttpHeaders.ETAG, export.etag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"exchange_rates.csv" + (gzip ? ".gz" : "") + "\"");
+        response.setContentType(gzip ? "application/gzip" : "text/csv");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(export.etag()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = export.length(); // Exclusive
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        boolean singleRange = range != null && range.startsWith("bytes=") && !range.contains(",");
+        if (singleRange && (ifRange == null || ifRange.equals(export.etag()))) {
+            long[] bounds = parseRange(range, export.length());
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + export.length());
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = bounds[0];
+            end = bounds[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + export.length());
+        }
+        response.setContentLengthLong(end - start);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, export.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(export.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    /**
+     * Parses a single {@code bytes=} range; multi-range requests are answered with the full content instead.
+     *
+     * @return start (inclusive) and end (exclusive), or {@code null} if the range cannot be satisfied
+     */
+    static long[] parseRange(String header, long length) {
+        if (length == 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                return suffix <= 0 ? null : new long[] {Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            return start >= length || end <= start ? null : new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.crewmeister.challenge.controller;
+
+import com.crewmeister.challenge.push.RatesBroadcaster;
+import com.crewmeister.challenge.reactive.ReactiveConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@RestController
+@Profile("!" + ReactiveConfig.PROFILE)
+@RequestMapping("/v1/api/rates")
+public class RatesStreamController {
+
+    private final RatesBroadcaster ratesBroadcaster;
+
+    @Autowired
+    public RatesStreamController(RatesBroadcaster ratesBroadcaster) {
+        this.ratesBroadcaster = ratesBroadcaster;
+    }
+
+    /**
+     * Subscribe to newly imported rates as Server-Sent Events.
+     * Each event is named {@code rates}, has the date as id and carries that date's rates as JSON.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRates() {
+        log.debug("New subscription to rate updates");
+        return ratesBroadcaster.subscribe();
+    }
+}
@@ -0,0 +1,12 @@
+package com.crewmeister.challenge.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) grouping the currency rates of one date.
+ *
+ * @param date  The date the exchange rates apply to.
+ * @param rates The rates on that date; empty if none are stored.
+ */
+public record DateRatesDTO(LocalDate date, List<CurrencyRatesDTO> rates) { }
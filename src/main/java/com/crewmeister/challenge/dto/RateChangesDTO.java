@@ -0,0 +1,12 @@
+package com.crewmeister.challenge.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing a page of the rate change feed.
+ *
+ * @param rates     The rates added after the requested position, oldest first.
+ * @param nextToken The token to pass as {@code since} to continue from the end of this page.
+ * @param hasMore   Whether further changes are available right away.
+ */
+public record RateChangesDTO(List<CurrencyRatesDTO> rates, String nextToken, boolean hasMore) { }
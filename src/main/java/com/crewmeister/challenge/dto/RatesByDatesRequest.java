@@ -0,0 +1,12 @@
+package com.crewmeister.challenge.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request body for looking up the rates of several dates at once.
+ *
+ * @param dates      The dates to fetch rates for.
+ * @param currencies Optional currency names to restrict the result to; all currencies if omitted.
+ */
+public record RatesByDatesRequest(List<LocalDate> dates, List<String> currencies) { }
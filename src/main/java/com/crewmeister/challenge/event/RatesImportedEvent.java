@@ -0,0 +1,39 @@
+package com.crewmeister.challenge.event;
+
+import com.crewmeister.challenge.model.CurrencyRates;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Published after an import has committed new currency rates.
+ * Listeners use it to refresh anything derived from the stored rates.
+ * It is also published without rates when another instance changed the stored rates.
+ *
+ * @param insertedRates the rates inserted by the import, empty for changes made by another instance
+ * @param dates         the distinct dates of the changed rates, in ascending order
+ */
+public record RatesImportedEvent(List<CurrencyRates> insertedRates, SortedSet<LocalDate> dates) {
+
+    public RatesImportedEvent(List<CurrencyRates> insertedRates) {
+        this(insertedRates, datesOf(insertedRates));
+    }
+
+    /**
+     * @param dates the dates of the rates another instance changed
+     * @return an event for changes made by another instance
+     */
+    public static RatesImportedEvent remote(SortedSet<LocalDate> dates) {
+        return new RatesImportedEvent(List.of(), dates);
+    }
+
+    private static SortedSet<LocalDate> datesOf(List<CurrencyRates> rates) {
+        SortedSet<LocalDate> dates = new TreeSet<>();
+        for (CurrencyRates rate : rates) {
+            dates.add(rate.getDate());
+        }
+        return dates;
+    }
+}
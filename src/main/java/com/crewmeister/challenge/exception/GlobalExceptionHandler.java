@@ -1,7 +1,10 @@
 package com.crewmeister.challenge.exception;
 
+import com.crewmeister.challenge.limit.ConcurrencyLimitExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -29,6 +32,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Handles invalid client input (e.g., a negative amount or a malformed token).
+     *
+     * @param ex the exception thrown
+     * @return HTTP 400 Bad Request with the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        logger.debug("IllegalArgumentException caught: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * Handles requests rejected by a bulkhead under overload. Rejection is cheap, so clients may retry shortly.
+     *
+     * @param ex the exception thrown
+     * @return HTTP 503 Service Unavailable with a Retry-After header
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<String> handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException ex) {
+        logger.debug("ConcurrencyLimitExceededException caught: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     /**
      * Handles all general exceptions not explicitly caught by other handlers.
      *
@@ -0,0 +1,108 @@
+package com.crewmeister.challenge.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to measured latency, in the style of a gradient limiter.
+ * A long-term average of the response time serves as the no-load baseline. When recent responses get slower than
+ * the baseline allows, the limit shrinks proportionally; while they keep up, it grows by roughly its square root,
+ * which leaves room for a small queue. Requests above the limit are rejected instead of queued.
+ *
+ * <p>Acquiring is a single atomic increment; the limit is recalculated on release.
+ */
+public final class AdaptiveLimiter {
+
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double SHORT_WINDOW_ALPHA = 2.0 / (10 + 1);
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": initial " + initialLimit
+                    + ", min " + minLimit + ", max " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Claims a slot for a request.
+     *
+     * @return whether the request may proceed; if so, {@link #release(long)} must be called once it completes
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Frees the slot of a completed request and adjusts the limit to its response time.
+     *
+     * @param rttNanos the time the request took
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(Math.max(1, rttNanos), inFlightBefore);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightBefore) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * LONG_WINDOW_ALPHA;
+            shortRttNanos += (rttNanos - shortRttNanos) * SHORT_WINDOW_ALPHA;
+        }
+        // After a sustained slowdown the baseline has drifted up; pull it back so the limit can recover
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        // With most of the limit unused, latency says nothing about whether the limit is too high
+        if (inFlightBefore < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the current number of requests allowed at once
+     */
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the number of requests rejected so far
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+}
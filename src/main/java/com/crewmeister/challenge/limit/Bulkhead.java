@@ -0,0 +1,20 @@
+package com.crewmeister.challenge.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a handler method under the {@link AdaptiveLimiter} of the named bulkhead.
+ * Handlers sharing a name share one limit; limits are configured with {@code limits.<name>.*} properties.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    /**
+     * @return the bulkhead name
+     */
+    String value();
+}
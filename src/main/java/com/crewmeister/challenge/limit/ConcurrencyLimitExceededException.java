@@ -0,0 +1,11 @@
+package com.crewmeister.challenge.limit;
+
+/**
+ * Thrown when a request is rejected because its bulkhead is at its concurrency limit.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String bulkhead) {
+        super("Too many concurrent requests for " + bulkhead + ", retry later");
+    }
+}
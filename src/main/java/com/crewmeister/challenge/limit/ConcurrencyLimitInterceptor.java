@@ -0,0 +1,68 @@
+package com.crewmeister.challenge.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the {@link Bulkhead} of a handler method: requests beyond the bulkhead's current limit are rejected
+ * with {@link ConcurrencyLimitExceededException} before any work is done, and every admitted request's
+ * latency feeds back into the limit.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final Environment environment;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConcurrencyLimitInterceptor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Bulkhead bulkhead = handlerMethod.getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            return true;
+        }
+        AdaptiveLimiter limiter = limiter(bulkhead.value());
+        if (!limiter.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException(bulkhead.value());
+        }
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(LIMITER_ATTRIBUTE) instanceof AdaptiveLimiter limiter) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            limiter.release(System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE));
+        }
+    }
+
+    /**
+     * @return the limiter of the named bulkhead, created from its {@code limits.<name>.*} properties on first use
+     */
+    public AdaptiveLimiter limiter(String name) {
+        return limiters.computeIfAbsent(name, key -> new AdaptiveLimiter(key,
+                environment.getProperty("limits." + key + ".initial-limit", Integer.class, 20),
+                environment.getProperty("limits." + key + ".min-limit", Integer.class, 1),
+                environment.getProperty("limits." + key + ".max-limit", Integer.class, 200)));
+    }
+}
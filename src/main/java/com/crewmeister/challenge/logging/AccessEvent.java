@@ -0,0 +1,23 @@
+package com.crewmeister.challenge.logging;
+
+/**
+ * Structured record of a single handled request.
+ *
+ * @param timestampMillis epoch millis when the request started
+ * @param method          HTTP method
+ * @param path            request path without the query string
+ * @param query           query string, or {@code null}
+ * @param status          HTTP status sent to the client
+ * @param durationMicros  time spent handling the request
+ * @param error           class name of an exception that escaped the handler, or {@code null}
+ */
+public record AccessEvent(long timestampMillis, String method, String path, String query, int status,
+                          long durationMicros, String error) {
+
+    /**
+     * @return {@code true} for failed requests, which are always kept regardless of sampling
+     */
+    public boolean isError() {
+        return status >= 400 || error != null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.crewmeister.challenge.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times every request and hands sampled outcomes to the {@link AccessLogPipeline}.
+ * Does no logging or formatting on the request thread itself.
+ */
+@Component
+@ConditionalOnProperty(name = "access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLogPipeline pipeline;
+
+    @Autowired
+    public AccessLogFilter(AccessLogPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            int status = failure != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            if (pipeline.shouldRecord(status, failure != null)) {
+                pipeline.publish(new AccessEvent(startMillis, request.getMethod(), request.getRequestURI(),
+                        request.getQueryString(), status, (System.nanoTime() - start) / 1000,
+                        failure != null ? failure.getClass().getName() : null));
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.crewmeister.challenge.logging;
+
+import com.crewmeister.challenge.util.MpscRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves request logging off the request threads.
+ * Request threads hand {@link AccessEvent}s to a bounded lock-free ring buffer. A background writer drains
+ * it into the {@code access} logger, so appender I/O and message formatting happen on the writer thread only.
+ * Successful requests are sampled, errors are always kept. When the buffer is full, events are dropped and
+ * counted instead of stalling the request.
+ */
+@Component
+public class AccessLogPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogPipeline.class);
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final MpscRingBuffer<AccessEvent> buffer;
+    private final double sampleRate;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AccessLogPipeline(@Value("${access-log.buffer-size:8192}") int bufferSize,
+                             @Value("${access-log.sample-rate:0.01}") double sampleRate) {
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.sampleRate = sampleRate;
+        this.writer = new Thread(this::drain, "access-log-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Decides whether a request with the given outcome should be recorded.
+     * Cheap enough to call before building the event, so unsampled requests allocate nothing.
+     *
+     * @param status the response status
+     * @param failed whether an exception escaped the handler
+     */
+    public boolean shouldRecord(int status, boolean failed) {
+        return failed || status >= 400 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Hands an event to the writer without blocking.
+     *
+     * @param event the event
+     * @return {@code false} if the event was dropped because the buffer is full
+     */
+    public boolean publish(AccessEvent event) {
+        if (buffer.offer(event)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return the number of events dropped under back-pressure since startup
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        long reportedDrops = 0;
+        while (running) {
+            AccessEvent event = buffer.poll();
+            if (event == null) {
+                long drops = dropped.sum();
+                if (drops != reportedDrops) {
+                    logger.warn("Dropped {} access events because the log writer fell behind", drops - reportedDrops);
+                    reportedDrops = drops;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            write(event);
+        }
+        for (AccessEvent event = buffer.poll(); event != null; event = buffer.poll()) {
+            write(event);
+        }
+    }
+
+    private void write(AccessEvent event) {
+        String line = "ts=" + Instant.ofEpochMilli(event.timestampMillis())
+                + " method=" + event.method()
+                + " path=" + event.path()
+                + (event.query() != null ? " query=\"" + event.query() + "\"" : "")
+                + " status=" + event.status()
+                + " durationMicros=" + event.durationMicros()
+                + (event.error() != null ? " error=" + event.error() : "")
+                + (event.isError() ? "" : " sampleRate=" + sampleRate);
+        if (event.isError()) {
+            accessLogger.warn(line);
+        } else {
+            accessLogger.info(line);
+        }
+    }
+}
@@ -6,14 +6,19 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 /**
  * Represents a currency type (e.g., USD, EUR, etc.).
+ * Static reference data, so it is held in the second-level cache as read-only.
  */
 @Entity
 @Table(name = "currency")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Getter
 @Setter
 @AllArgsConstructor
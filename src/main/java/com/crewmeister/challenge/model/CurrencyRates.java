@@ -3,17 +3,24 @@ package com.crewmeister.challenge.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 /**
  * Represents an exchange rate for a specific currency on a specific date.
+ * Rates never change after import, so they are held in the second-level cache as read-only.
  */
 @Entity
 @Table(name = "currency_rates",
     indexes = {
-        @Index(name = "idx_date_currency", columnList = "date, currencyId") // Optimization for queries filtering by date and currency
+        // Optimization for queries filtering by date and currency; unique so concurrent imports cannot duplicate rows
+        @Index(name = "idx_date_currency", columnList = "date, currencyId", unique = true),
+        @Index(name = "idx_version", columnList = "version, id") // Change feed queries scan by version
     })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Getter
 @Setter
 public class CurrencyRates {
@@ -38,5 +45,9 @@ public class CurrencyRates {
     /** The exchange rate for the associated currency on the given date. */
     @Column(nullable = false)
     private double rate;
+
+    /** Version of the import that inserted this rate, see {@link ImportBatch}. */
+    @Column(nullable = false)
+    private long version;
 }
 
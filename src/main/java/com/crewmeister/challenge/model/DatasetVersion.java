@@ -0,0 +1,30 @@
+package com.crewmeister.challenge.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Version counter of a dataset, bumped whenever its contents change.
+ * Instances poll it to learn that another instance changed the data and their caches are stale.
+ */
+@Entity
+@Table(name = "dataset_version")
+@Getter
+@Setter
+public class DatasetVersion {
+
+    /** Name of the dataset. */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /** Incremented on every change. */
+    private long version;
+
+    /** When the version was last incremented. */
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
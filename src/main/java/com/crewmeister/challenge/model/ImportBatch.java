@@ -0,0 +1,33 @@
+package com.crewmeister.challenge.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Records a single import run. Its id is the version stamped on every rate the run inserts,
+ * which makes versions monotonically increasing across imports.
+ */
+@Entity
+@Table(name = "import_batch")
+@Getter
+@Setter
+public class ImportBatch {
+
+    /** Auto-generated primary key, used as the import version. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** When the import started writing rates. */
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    /** When all rates of the import were committed; null while the import is still running. */
+    private Instant completedAt;
+
+    /** Number of rates the import inserted. */
+    private int rateCount;
+}
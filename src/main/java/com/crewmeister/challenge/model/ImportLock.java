@@ -0,0 +1,35 @@
+package com.crewmeister.challenge.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A named lease shared by all instances through the database. The lease is held by {@code owner}
+ * until {@code lockedUntil}; the holder extends it while working, and anyone may take it over once it expired.
+ */
+@Entity
+@Table(name = "import_lock")
+@Getter
+@Setter
+public class ImportLock {
+
+    /** Name of the lock. */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /** Instance currently or last holding the lease. */
+    @Column(nullable = false)
+    private String owner;
+
+    /** When the current holder acquired the lease. */
+    @Column(nullable = false)
+    private Instant lockedAt;
+
+    /** When the lease expires unless it is extended. */
+    @Column(nullable = false)
+    private Instant lockedUntil;
+}
@@ -0,0 +1,278 @@
+package com.crewmeister.challenge.push;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.mapper.CurrencyRatesMapper;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes newly imported rates to Server-Sent Events subscribers.
+ * Each publication is serialized once into a shared event that is fanned out to every subscriber.
+ * Subscribers hold no thread while idle; each has a small bounded queue and, while it has events queued,
+ * its own sender thread, so a client that blocks a write only ever holds up itself.
+ * A subscriber whose queue is full, or whose current write has not finished within the write timeout,
+ * is evicted instead of slowing down the others. Sends and completion of a subscriber always run on its sender,
+ * so an emitter is never completed while a write to it is in progress.
+ * When all sender threads are busy, e.g. during a heartbeat to thousands of subscribers, a subscriber waits
+ * with its events queued and is drained by the next sender that finishes; only a full queue evicts it.
+ */
+@Component
+public class RatesBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatesBroadcaster.class);
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final CurrencyRateRepository currencyRateRepository;
+    private final ObjectMapper objectMapper;
+    private final long subscriptionTimeoutMillis;
+    private final int bufferSize;
+    private final int maxDatesPerImport;
+    private final long writeTimeoutNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /** Subscribers with queued events for which no sender thread was free. */
+    private final Queue<Subscriber> waiting = new ConcurrentLinkedQueue<>();
+    private final ThreadPoolExecutor senders;
+
+    @Autowired
+    public RatesBroadcaster(CurrencyRateRepository currencyRateRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${rates.push.subscription-timeout-millis:1800000}") long subscriptionTimeoutMillis,
+                            @Value("${rates.push.buffer-size:16}") int bufferSize,
+                            @Value("${rates.push.max-dates-per-import:5}") int maxDatesPerImport,
+                            @Value("${rates.push.write-timeout-millis:5000}") long writeTimeoutMillis,
+                            @Value("${rates.push.max-sender-threads:256}") int maxSenderThreads) {
+        this.currencyRateRepository = currencyRateRepository;
+        this.objectMapper = objectMapper;
+        this.subscriptionTimeoutMillis = subscriptionTimeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxDatesPerImport = maxDatesPerImport;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        AtomicInteger threadCount = new AtomicInteger();
+        // No queue: every draining subscriber gets a thread of its own, idle threads are released after a minute
+        this.senders = new ThreadPoolExecutor(0, Math.max(1, maxSenderThreads), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "rates-push-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(subscriptionTimeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        logger.debug("New rates subscriber, {} active", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * @return the number of connected subscribers
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Publishes the rates of the most recent imported dates, one event per date.
+     * Older dates of a large backfill are not pushed; clients catch up through the change feed.
+     */
+    @EventListener
+    @Order(CompactRateStore.LISTENER_ORDER + 20)
+    public void onRatesImported(RatesImportedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<LocalDate> dates = new ArrayList<>(event.dates());
+        for (LocalDate date : dates.subList(Math.max(0, dates.size() - maxDatesPerImport), dates.size())) {
+            try {
+                List<CurrencyRates> rates = currencyRateRepository.findByDate(date);
+                List<CurrencyRatesDTO> dtos = CurrencyRatesMapper.INSTANCE.toDtoList(rates);
+                String json = objectMapper.writeValueAsString(dtos);
+                broadcast(SseEmitter.event().id(date.toString()).name("rates").data(json, MediaType.APPLICATION_JSON).build());
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to serialize rates for {} for push: {}", date, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections alive through proxies and detects clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${rates.push.heartbeat-millis:30000}")
+    public void heartbeat() {
+        broadcast(HEARTBEAT);
+    }
+
+    /**
+     * Evicts subscribers whose current write has been blocked for longer than the write timeout.
+     * Their sender completes the emitter once the write returns, which the container's socket timeout bounds.
+     */
+    @Scheduled(fixedDelayString = "${rates.push.write-timeout-millis:5000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendStarted = subscriber.sendStartedNanos().get();
+            if (sendStarted != 0 && now - sendStarted > writeTimeoutNanos) {
+                logger.debug("Evicting rates subscriber stalled in a write");
+                close(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Hands waiting subscribers to sender threads that became free. Senders take them over when they finish a
+     * subscriber, so this only picks up those that started waiting just as the last busy sender finished.
+     */
+    @Scheduled(fixedDelayString = "${rates.push.resume-millis:1000}")
+    public void resumeWaiting() {
+        for (Subscriber subscriber = waiting.poll(); subscriber != null; subscriber = waiting.poll()) {
+            if (!startSender(subscriber)) {
+                waiting.add(subscriber);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(this::close);
+        senders.shutdown();
+        try {
+            senders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * Queues the same pre-built event for every subscriber and evicts those whose queue is full.
+     */
+    void broadcast(Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue().offer(event)) {
+                scheduleDrain(subscriber);
+            } else {
+                logger.debug("Evicting slow rates subscriber");
+                close(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Stops pushing to a subscriber. The emitter is completed by its sender, after any write in progress.
+     */
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.closed().compareAndSet(false, true)) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining().compareAndSet(false, true) && !startSender(subscriber)) {
+            // Stays marked as draining, so it is queued only once; its events wait in its own queue
+            waiting.add(subscriber);
+        }
+    }
+
+    /**
+     * Drains the subscriber on a new sender thread, which then continues with waiting subscribers.
+     *
+     * @return false if all sender threads are busy
+     */
+    private boolean startSender(Subscriber first) {
+        try {
+            senders.execute(() -> {
+                for (Subscriber subscriber = first; subscriber != null; subscriber = waiting.poll()) {
+                    drain(subscriber);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            for (Set<DataWithMediaType> event = subscriber.queue().poll();
+                 event != null && !subscriber.closed().get(); event = subscriber.queue().poll()) {
+                subscriber.sendStartedNanos().set(System.nanoTime());
+                try {
+                    subscriber.emitter().send(event);
+                } finally {
+                    subscriber.sendStartedNanos().set(0);
+                }
+            }
+            if (subscriber.closed().get()) {
+                subscriber.queue().clear();
+                subscriber.emitter().complete();
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.closed().set(true);
+            subscriber.emitter().completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining().set(false);
+        }
+        if (!subscriber.queue().isEmpty() || subscriber.closed().get()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue, AtomicBoolean draining,
+                              AtomicBoolean closed, AtomicLong sendStartedNanos) {
+        Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue) {
+            this(emitter, queue, new AtomicBoolean(), new AtomicBoolean(), new AtomicLong());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.crewmeister.challenge.reactive;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Read stack on WebFlux and R2DBC, active with the {@code reactive} profile instead of the Spring MVC controllers.
+ * Imports and all writes still go through JPA and JDBC; only the query endpoints are served reactively,
+ * on Netty's small, fixed set of event loop threads.
+ */
+@Configuration
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveConfig {
+
+    public static final String PROFILE = "reactive";
+
+    /** Tomcat is on the classpath for the MVC stack and would otherwise be preferred as reactive server. */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
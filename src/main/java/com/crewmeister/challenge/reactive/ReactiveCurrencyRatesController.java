@@ -0,0 +1,104 @@
+package com.crewmeister.challenge.reactive;
+
+import com.crewmeister.challenge.dto.CurrencyDTO;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Query endpoints of {@link com.crewmeister.challenge.controller.CurrencyRatesController} on WebFlux,
+ * with the same paths, parameters and DTOs. Lists are streamed with back-pressure;
+ * request {@code application/x-ndjson} to receive one rate per line instead of a JSON array.
+ * {@code /rates} returns pages in the same shape as the MVC endpoint.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/api")
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveCurrencyRatesController {
+
+    private final ReactiveCurrencyRatesService reactiveCurrencyRatesService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    @Autowired
+    public ReactiveCurrencyRatesController(ReactiveCurrencyRatesService reactiveCurrencyRatesService,
+                                           @Value("${spring.data.web.pageable.default-page-size:20}") int defaultPageSize,
+                                           @Value("${spring.data.web.pageable.max-page-size:2000}") int maxPageSize) {
+        this.reactiveCurrencyRatesService = reactiveCurrencyRatesService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Retrieve all supported currencies.
+     */
+    @GetMapping("/currencies")
+    public Flux<CurrencyDTO> getAllCurrencies() {
+        log.debug("Fetching all available currencies");
+        return reactiveCurrencyRatesService.getAllCurrencies();
+    }
+
+    /**
+     * Retrieve paginated currency exchange rates. Like the MVC endpoint, the page size defaults to
+     * {@code spring.data.web.pageable.default-page-size} and is capped at {@code spring.data.web.pageable.max-page-size}.
+     */
+    @GetMapping("/rates")
+    public Mono<Page<CurrencyRatesDTO>> getAllCurrencyRates(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                            @RequestParam(value = "size", required = false) Integer size) {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (page < 0 || pageSize < 1) {
+            return Mono.error(new IllegalArgumentException("Page must not be negative and size must be positive"));
+        }
+        Pageable pageable = PageRequest.of(page, Math.min(pageSize, maxPageSize));
+        log.debug("Fetching all currency rates (page: {}, size: {}).", pageable.getPageNumber(), pageable.getPageSize());
+        return reactiveCurrencyRatesService.getCurrencyRates(pageable);
+    }
+
+    /**
+     * Retrieve exchange rates for all currencies on a specific date.
+     */
+    @GetMapping("/rates/date")
+    public Flux<CurrencyRatesDTO> getCurrencyRatesByDate(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("Fetching currency rates for date: {}", date);
+        return reactiveCurrencyRatesService.getCurrencyRatesByDate(date);
+    }
+
+    /**
+     * Retrieve a specific exchange rate by date and currency code.
+     */
+    @GetMapping("/rates/date-currency")
+    public Mono<CurrencyRatesDTO> getCurrencyRatesByDateAndCurrency(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam("currency") String currency) {
+        log.debug("Fetching rate for date: {} and currency: {}", date, currency);
+        return reactiveCurrencyRatesService.getCurrencyRateByDateAndCurrency(date, currency);
+    }
+
+    /**
+     * Convert a given amount from a currency to EUR on a specific date.
+     */
+    @GetMapping("/convert")
+    public Mono<Double> convertToEur(
+            @RequestParam String currency,
+            @RequestParam double amount,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("Converting {} {} to EUR for date {}", amount, currency, date);
+        return reactiveCurrencyRatesService.convertToEur(currency, amount, date);
+    }
+}
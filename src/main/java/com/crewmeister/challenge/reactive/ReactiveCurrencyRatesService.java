@@ -0,0 +1,167 @@
+package com.crewmeister.challenge.reactive;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.dto.CurrencyDTO;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.mapper.CurrencyRatesMapper;
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.segment.RateSegmentStore;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Reactive counterpart of the read methods of {@link com.crewmeister.challenge.service.CurrencyRatesService}.
+ * Rates of closed years are merged in from the segments the same way, with table rows winning.
+ * Segment reads may decompress a block, so they run on the bounded elastic scheduler instead of an event loop.
+ */
+@Service
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveCurrencyRatesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCurrencyRatesService.class);
+
+    private final ReactiveRatesRepository reactiveRatesRepository;
+    private final RateSegmentStore rateSegmentStore;
+    private final CompactRateStore compactRateStore;
+    private final CurrencyRatesService currencyRatesService;
+
+    @Autowired
+    public ReactiveCurrencyRatesService(ReactiveRatesRepository reactiveRatesRepository,
+                                        RateSegmentStore rateSegmentStore,
+                                        CompactRateStore compactRateStore,
+                                        CurrencyRatesService currencyRatesService) {
+        this.reactiveRatesRepository = reactiveRatesRepository;
+        this.rateSegmentStore = rateSegmentStore;
+        this.compactRateStore = compactRateStore;
+        this.currencyRatesService = currencyRatesService;
+    }
+
+    public Flux<CurrencyDTO> getAllCurrencies() {
+        return reactiveRatesRepository.findAllCurrencies();
+    }
+
+    /**
+     * Returns a page of all rates in the shape of the MVC endpoint. Without segments the page is read through R2DBC
+     * in id order. Once segments exist, both tiers are paged by {@link CurrencyRatesService#getAllCurrencyRates}
+     * on the bounded elastic scheduler, so that table rows correcting a segment rate are neither listed nor counted twice.
+     *
+     * @param pageable page number and size; the rates are not sorted further
+     */
+    public Mono<Page<CurrencyRatesDTO>> getCurrencyRates(Pageable pageable) {
+        if (rateSegmentStore.years().isEmpty()) {
+            return Mono.zip(reactiveRatesRepository.findAll(pageable.getOffset(), pageable.getPageSize()).collectList(),
+                            reactiveRatesRepository.count())
+                    .<Page<CurrencyRatesDTO>>map(results -> new PageImpl<>(results.getT1(), pageable, results.getT2()));
+        }
+        return readSegments(() -> currencyRatesService.getAllCurrencyRates(pageable)
+                .map(CurrencyRatesMapper.INSTANCE::toDto));
+    }
+
+    /**
+     * Streams the rates of a date. Dates of a closed year are merged with the segment and ordered by currency name.
+     */
+    public Flux<CurrencyRatesDTO> getCurrencyRatesByDate(LocalDate date) {
+        logger.debug("Fetching currency rates for date: {}", date);
+        if (!rateSegmentStore.covers(date)) {
+            return reactiveRatesRepository.findByDate(date);
+        }
+        return Mono.zip(reactiveRatesRepository.findByDate(date).collectList(),
+                        readSegments(() -> rateSegmentStore.find(date)),
+                        currencies())
+                .flatMapIterable(results -> mergeArchived(results.getT1(), results.getT2(), results.getT3()));
+    }
+
+    /**
+     * @throws NoSuchElementException through the returned Mono if no rate is found
+     */
+    public Mono<CurrencyRatesDTO> getCurrencyRateByDateAndCurrency(LocalDate date, String currency) {
+        logger.debug("Fetching currency rate for currency '{}' on date {}", currency, date);
+        return reactiveRatesRepository.findByDateAndCurrency(date, currency)
+                .switchIfEmpty(Mono.defer(() -> findArchived(date, currency)).flatMap(rate ->
+                        currencies().map(currencies -> toDto(new RateValue(date, currency, rate), currencies))))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No record for currency or date found")));
+    }
+
+    /**
+     * Converts an amount to EUR, reading the rate from the {@link CompactRateStore} where possible.
+     *
+     * @throws IllegalArgumentException through the returned Mono if the amount is negative
+     * @throws NoSuchElementException   through the returned Mono if no rate is found
+     */
+    public Mono<Double> convertToEur(String currency, double amount, LocalDate date) {
+        if (amount < 0) {
+            return Mono.error(new IllegalArgumentException("Amount must be non-negative"));
+        }
+        OptionalDouble compactRate = compactRateStore.find(date, currency);
+        if (compactRate.isPresent()) {
+            return Mono.just(compactRate.getAsDouble() * amount);
+        }
+        return reactiveRatesRepository.findByDateAndCurrency(date, currency)
+                .map(CurrencyRatesDTO::rate)
+                .switchIfEmpty(Mono.defer(() -> findArchived(date, currency)))
+                .map(rate -> rate * amount)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No record for currency or date found")));
+    }
+
+    private Mono<Double> findArchived(LocalDate date, String currency) {
+        return readSegments(() -> rateSegmentStore.find(date, currency))
+                .flatMap(rate -> rate.isPresent() ? Mono.just(rate.getAsDouble()) : Mono.empty());
+    }
+
+    private <T> Mono<T> readSegments(Callable<T> read) {
+        return Mono.fromCallable(read).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Map<String, CurrencyDTO>> currencies() {
+        return reactiveRatesRepository.findAllCurrencies().collectMap(CurrencyDTO::currencyName, Function.identity());
+    }
+
+    /**
+     * Adds segment rates for currencies missing from the table rows of the same date, ordered by currency name.
+     */
+    private static List<CurrencyRatesDTO> mergeArchived(List<CurrencyRatesDTO> stored, List<RateValue> archived,
+                                                        Map<String, CurrencyDTO> currencies) {
+        Set<String> storedCurrencies = new HashSet<>();
+        for (CurrencyRatesDTO rate : stored) {
+            storedCurrencies.add(rate.currency().currencyName());
+        }
+        List<CurrencyRatesDTO> merged = new ArrayList<>(stored);
+        for (RateValue value : archived) {
+            if (!storedCurrencies.contains(value.currencyName())) {
+                merged.add(toDto(value, currencies));
+            }
+        }
+        merged.sort(Comparator.comparing(rate -> rate.currency().currencyName()));
+        return merged;
+    }
+
+    /**
+     * Segment rates have no id.
+     */
+    private static CurrencyRatesDTO toDto(RateValue value, Map<String, CurrencyDTO> currencies) {
+        CurrencyDTO currency = currencies.getOrDefault(value.currencyName(), new CurrencyDTO(null, value.currencyName()));
+        return new CurrencyRatesDTO(null, value.date(), value.rate(), currency);
+    }
+}
@@ -0,0 +1,93 @@
+package com.crewmeister.challenge.reactive;
+
+import com.crewmeister.challenge.dto.CurrencyDTO;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking queries for the reactive read stack, mapping rows straight into the API DTOs.
+ * Results are streamed as the driver produces them, so large results are subject to subscriber demand.
+ */
+@Repository
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveRatesRepository {
+
+    private static final String SELECT_RATES = "SELECT r.id, r.date, r.rate, c.id AS currency_id, c.currency_name "
+            + "FROM currency_rates r JOIN currency c ON c.id = r.currency_id";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveRatesRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * @return all currencies in id order
+     */
+    public Flux<CurrencyDTO> findAllCurrencies() {
+        return databaseClient.sql("SELECT id, currency_name FROM currency ORDER BY id")
+                .map(row -> new CurrencyDTO(row.get("id", Long.class), row.get("currency_name", String.class)))
+                .all();
+    }
+
+    /**
+     * @param offset number of rates to skip
+     * @param limit  maximum number of rates to return
+     * @return a window of the stored rates in id order
+     */
+    public Flux<CurrencyRatesDTO> findAll(long offset, int limit) {
+        return databaseClient.sql(SELECT_RATES + " ORDER BY r.id LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveRatesRepository::toDto)
+                .all();
+    }
+
+    /**
+     * @return the number of stored rates
+     */
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM currency_rates")
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    /**
+     * @param date the rate date
+     * @return the stored rates of the date in id order
+     */
+    public Flux<CurrencyRatesDTO> findByDate(LocalDate date) {
+        return databaseClient.sql(SELECT_RATES + " WHERE r.date = :date ORDER BY r.id")
+                .bind("date", date)
+                .map(ReactiveRatesRepository::toDto)
+                .all();
+    }
+
+    /**
+     * @param date         the rate date
+     * @param currencyName the currency name
+     * @return the stored rate, or empty
+     */
+    public Mono<CurrencyRatesDTO> findByDateAndCurrency(LocalDate date, String currencyName) {
+        return databaseClient.sql(SELECT_RATES + " WHERE r.date = :date AND c.currency_name = :currencyName")
+                .bind("date", date)
+                .bind("currencyName", currencyName)
+                .map(ReactiveRatesRepository::toDto)
+                .one();
+    }
+
+    private static CurrencyRatesDTO toDto(Readable row) {
+        return new CurrencyRatesDTO(row.get("id", Long.class), row.get("date", LocalDate.class),
+                row.get("rate", Double.class),
+                new CurrencyDTO(row.get("currency_id", Long.class), row.get("currency_name", String.class)));
+    }
+}
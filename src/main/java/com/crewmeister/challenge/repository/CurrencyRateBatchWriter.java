@@ -0,0 +1,188 @@
+package com.crewmeister.challenge.repository;
+
+import com.crewmeister.challenge.config.DataSourceConfig;
+import com.crewmeister.challenge.model.CurrencyRates;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes currency rates with plain JDBC batches spread over several writer threads.
+ * Each writer uses its own connection from the write pool and commits per batch. Rows that violate the unique
+ * (date, currency) index because they were inserted concurrently elsewhere are skipped.
+ * A write can be cancelled between batches, for instance when the import lease is lost; batches committed until
+ * then are kept.
+ */
+@Repository
+public class CurrencyRateBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyRateBatchWriter.class);
+
+    static final String INSERT_SQL = "INSERT INTO currency_rates (date, currency_id, rate, version) VALUES (?, ?, ?, ?)";
+
+    /** SQL state reported for unique constraint violations. */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final DataSource dataSource;
+    private final int writerThreads;
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    @Autowired
+    public CurrencyRateBatchWriter(@Qualifier(DataSourceConfig.WRITE_DATA_SOURCE) DataSource dataSource,
+                                   @Value("${rates.import.writer-threads:4}") int writerThreads,
+                                   @Value("${rates.import.batch-size:1000}") int batchSize) {
+        this.dataSource = dataSource;
+        this.writerThreads = Math.max(1, writerThreads);
+        this.batchSize = Math.max(1, batchSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "rate-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Inserts the given rates in parallel batches.
+     *
+     * @param rates rates to insert; each must reference a persisted currency
+     * @return the rates actually inserted, excluding those that already existed
+     * @throws IllegalStateException if a writer fails for a reason other than a duplicate row
+     */
+    public List<CurrencyRates> write(List<CurrencyRates> rates) {
+        return write(rates, () -> false);
+    }
+
+    /**
+     * Inserts the given rates in parallel batches, stopping before the next commit once {@code cancelled} is true.
+     *
+     * @param rates rates to insert; each must reference a persisted currency
+     * @param cancelled polled by every writer before each commit
+     * @return the rates actually inserted, excluding those that already existed
+     * @throws IllegalStateException if the write was cancelled or a writer fails for a reason other than a duplicate row
+     */
+    public List<CurrencyRates> write(List<CurrencyRates> rates, BooleanSupplier cancelled) {
+        if (rates.isEmpty()) {
+            return List.of();
+        }
+        int partitions = Math.min(writerThreads, (rates.size() + batchSize - 1) / batchSize);
+        int partitionSize = (rates.size() + partitions - 1) / partitions;
+
+        List<Future<List<CurrencyRates>>> futures = new ArrayList<>(partitions);
+        for (int from = 0; from < rates.size(); from += partitionSize) {
+            List<CurrencyRates> partition = rates.subList(from, Math.min(from + partitionSize, rates.size()));
+            futures.add(executor.submit(() -> writePartition(partition, cancelled)));
+        }
+
+        List<CurrencyRates> inserted = new ArrayList<>(rates.size());
+        try {
+            for (Future<List<CurrencyRates>> future : futures) {
+                inserted.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing currency rates", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to write currency rates", e.getCause());
+        }
+        logger.debug("Inserted {} of {} currency rates using {} writers", inserted.size(), rates.size(), futures.size());
+        return inserted;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<CurrencyRates> writePartition(List<CurrencyRates> partition, BooleanSupplier cancelled)
+            throws SQLException {
+        List<CurrencyRates> inserted = new ArrayList<>(partition.size());
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (int from = 0; from < partition.size(); from += batchSize) {
+                    List<CurrencyRates> chunk = partition.subList(from, Math.min(from + batchSize, partition.size()));
+                    inserted.addAll(writeChunk(connection, statement, chunk, cancelled));
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return inserted;
+    }
+
+    private List<CurrencyRates> writeChunk(Connection connection, PreparedStatement statement, List<CurrencyRates> chunk,
+                                           BooleanSupplier cancelled) throws SQLException {
+        try {
+            for (CurrencyRates rate : chunk) {
+                bind(statement, rate);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            commitUnlessCancelled(connection, cancelled);
+            return chunk;
+        } catch (BatchUpdateException e) {
+            // Some rows were inserted concurrently by another writer or instance; retry row by row and skip those.
+            connection.rollback();
+            statement.clearBatch();
+            logger.debug("Batch of {} rates failed ({}), retrying row by row", chunk.size(), e.getMessage());
+            List<CurrencyRates> inserted = new ArrayList<>(chunk.size());
+            for (CurrencyRates rate : chunk) {
+                bind(statement, rate);
+                try {
+                    statement.executeUpdate();
+                    commitUnlessCancelled(connection, cancelled);
+                    inserted.add(rate);
+                } catch (SQLException rowEx) {
+                    connection.rollback();
+                    if (!isDuplicate(rowEx)) {
+                        throw rowEx;
+                    }
+                    logger.debug("Currency rate already exists for currency '{}' on date {}, skipping save.",
+                            rate.getCurrency().getCurrencyName(), rate.getDate());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static void commitUnlessCancelled(Connection connection, BooleanSupplier cancelled) throws SQLException {
+        if (cancelled.getAsBoolean()) {
+            connection.rollback();
+            throw new IllegalStateException("Write of currency rates was cancelled");
+        }
+        connection.commit();
+    }
+
+    private static void bind(PreparedStatement statement, CurrencyRates rate) throws SQLException {
+        statement.setObject(1, rate.getDate());
+        statement.setLong(2, rate.getCurrency().getId());
+        statement.setDouble(3, rate.getRate());
+        statement.setLong(4, rate.getVersion());
+    }
+
+    private static boolean isDuplicate(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException || UNIQUE_VIOLATION.equals(e.getSQLState());
+    }
+}
@@ -1,10 +1,20 @@
 package com.crewmeister.challenge.repository;
 
 import com.crewmeister.challenge.model.CurrencyRates;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +27,14 @@ public interface CurrencyRateRepository extends JpaRepository<CurrencyRates, Lon
 
     /**
      * Finds all exchange rates for a specific date.
+     * Historical rates never change, so the result is held in the query cache until the next import.
+     * The currency is fetched with the rates, so results can be shared between requests without lazy loading.
      *
      * @param date the date to filter by
      * @return list of CurrencyRates on the given date
      */
+    @EntityGraph(attributePaths = "currency")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<CurrencyRates> findByDate(LocalDate date);
 
     /**
@@ -30,5 +44,146 @@ public interface CurrencyRateRepository extends JpaRepository<CurrencyRates, Lon
      * @param currencyName the currency name (e.g., "USD", "EUR")
      * @return Optional of CurrencyRates if found
      */
+    @EntityGraph(attributePaths = "currency")
     Optional<CurrencyRates> findByDateAndCurrency_CurrencyName(LocalDate date, String currencyName);
+
+    /**
+     * Finds all exchange rates for a set of dates in a single query, ordered by date and currency name.
+     *
+     * @param dates the dates to fetch
+     * @return rates on any of the given dates
+     */
+    @Query("SELECT r FROM CurrencyRates r JOIN FETCH r.currency c WHERE r.date IN :dates ORDER BY r.date, c.currencyName")
+    List<CurrencyRates> findByDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Finds exchange rates of the given currencies for a set of dates in a single query,
+     * ordered by date and currency name.
+     *
+     * @param dates         the dates to fetch
+     * @param currencyNames the currency names to include
+     * @return matching rates on any of the given dates
+     */
+    @Query("SELECT r FROM CurrencyRates r JOIN FETCH r.currency c "
+            + "WHERE r.date IN :dates AND c.currencyName IN :currencyNames ORDER BY r.date, c.currencyName")
+    List<CurrencyRates> findByDatesAndCurrencies(@Param("dates") Collection<LocalDate> dates,
+                                                 @Param("currencyNames") Collection<String> currencyNames);
+
+    /**
+     * Fetches the (date, currency) key of every stored rate without loading full entities.
+     * Used by the importer to build its in-memory duplicate filter in a single query.
+     *
+     * @return keys of all stored rates
+     */
+    @Query("SELECT new com.crewmeister.challenge.repository.RateKey(r.date, c.currencyName) "
+            + "FROM CurrencyRates r JOIN r.currency c")
+    List<RateKey> findAllRateKeys();
+
+    /**
+     * Fetches the date, currency and value of every stored rate without loading full entities.
+     * Used to build the compact in-memory rate table. Ordered by currency id, then date,
+     * so currencies are encountered in the order they were first imported.
+     *
+     * @return values of all stored rates
+     */
+    @Query("SELECT new com.crewmeister.challenge.repository.RateValue(r.date, c.currencyName, r.rate) "
+            + "FROM CurrencyRates r JOIN r.currency c ORDER BY c.id, r.date")
+    List<RateValue> findAllRateValues();
+
+    /**
+     * Fetches the date, currency and value of all rates in a date range, ordered by date and currency name.
+     * Used to compact closed years into segments.
+     *
+     * @param from first date, inclusive
+     * @param to   last date, inclusive
+     * @return values of the rates in the range
+     */
+    @Query("SELECT new com.crewmeister.challenge.repository.RateValue(r.date, c.currencyName, r.rate) "
+            + "FROM CurrencyRates r JOIN r.currency c WHERE r.date BETWEEN :from AND :to ORDER BY r.date, c.currencyName")
+    List<RateValue> findRateValuesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Finds the rates in a date range, fetching their currency.
+     * Used to page through the years that are not held in segments.
+     *
+     * @param from     first date, inclusive
+     * @param to       last date, inclusive
+     * @param pageable offset, limit and sort of the window
+     * @return the rates of the window
+     */
+    @EntityGraph(attributePaths = "currency")
+    List<CurrencyRates> findByDateBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    /**
+     * Counts the stored rates per year, so paging can skip whole years without reading them.
+     *
+     * @return the number of rates of every year that has any
+     */
+    @Query("SELECT new com.crewmeister.challenge.repository.YearCount(YEAR(r.date), COUNT(r)) "
+            + "FROM CurrencyRates r GROUP BY YEAR(r.date)")
+    List<YearCount> countByYear();
+
+    /**
+     * Deletes all rates in a date range once they have been moved into a segment.
+     *
+     * @param from first date, inclusive
+     * @param to   last date, inclusive
+     * @return the number of deleted rates
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CurrencyRates r WHERE r.date BETWEEN :from AND :to")
+    int deleteByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * @return the oldest date with a stored rate, or {@code null} if the table is empty
+     */
+    @Query("SELECT MIN(r.date) FROM CurrencyRates r")
+    LocalDate findOldestDate();
+
+    /**
+     * Finds the most recent dates that have rates, newest first.
+     *
+     * @param pageable limits the number of dates returned
+     * @return distinct rate dates in descending order
+     */
+    @Query("SELECT DISTINCT r.date FROM CurrencyRates r ORDER BY r.date DESC")
+    List<LocalDate> findRecentDates(Pageable pageable);
+
+    /**
+     * Finds the rates inserted by one import.
+     *
+     * @param version version of the import, see {@link com.crewmeister.challenge.model.ImportBatch}
+     * @return the rates stamped with the version
+     */
+    @EntityGraph(attributePaths = "currency")
+    List<CurrencyRates> findByVersion(long version);
+
+    /**
+     * Finds rates added after a position in the change feed, in (version, id) order.
+     * Only versions up to {@code upToVersion} are returned, so rows of a still running import never appear.
+     *
+     * @param version     version of the last rate already seen
+     * @param id          id of the last rate already seen within that version
+     * @param upToVersion highest version that may be returned
+     * @param pageable    limits the number of rates returned
+     * @return the rates following the given position
+     */
+    @Query("SELECT r FROM CurrencyRates r JOIN FETCH r.currency "
+            + "WHERE (r.version > :version OR (r.version = :version AND r.id > :id)) AND r.version <= :upToVersion "
+            + "ORDER BY r.version, r.id")
+    List<CurrencyRates> findChangesAfter(@Param("version") long version, @Param("id") long id,
+                                         @Param("upToVersion") long upToVersion, Pageable pageable);
+
+    /**
+     * Finds the dates of the rates inserted by a range of imports.
+     *
+     * @param afterVersion last version already seen
+     * @param upToVersion  highest version to include
+     * @return the distinct dates, in ascending order
+     */
+    @Query("SELECT DISTINCT r.date FROM CurrencyRates r WHERE r.version > :afterVersion AND r.version <= :upToVersion "
+            + "ORDER BY r.date")
+    List<LocalDate> findDatesByVersionBetween(@Param("afterVersion") long afterVersion,
+                                              @Param("upToVersion") long upToVersion);
 }
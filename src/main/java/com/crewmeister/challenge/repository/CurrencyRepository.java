@@ -1,8 +1,11 @@
 package com.crewmeister.challenge.repository;
 
 import com.crewmeister.challenge.model.Currency;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -25,10 +28,11 @@ public interface CurrencyRepository extends JpaRepository<Currency, Long> {
 
     /**
      * Fetch all currency records.
-     * Note: This is equivalent to findAll(), hence redundant unless future logic is added.
+     * The result is held in the query cache, so repeated calls do not reach the database.
      *
      * @return List of all currencies
      */
     @Query("SELECT c FROM Currency c")
-    List<Currency> findAllCurrency();  // consider removing if no special logic
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Currency> findAllCurrency();
 }
@@ -0,0 +1,44 @@
+package com.crewmeister.challenge.repository;
+
+import com.crewmeister.challenge.model.ImportBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repository interface for import batches.
+ */
+@Repository
+public interface ImportBatchRepository extends JpaRepository<ImportBatch, Long> {
+
+    /**
+     * Finds the highest version up to which every import has completed. Versions are assigned when an import
+     * starts, so a later import can complete while an earlier one is still running; the result then stops
+     * one below the earliest running import, otherwise the feed would skip its rows once it completes.
+     *
+     * @return the latest version whose rates and those of all earlier versions are committed, or 0 if there is none
+     */
+    @Query("SELECT COALESCE(MIN(b.id) - 1, (SELECT MAX(a.id) FROM ImportBatch a), 0) "
+            + "FROM ImportBatch b WHERE b.completedAt IS NULL")
+    long findLatestCompletedVersion();
+
+    /**
+     * Completes imports that were left running by a process that died. The rates they committed are kept;
+     * their rate count is not known and stays 0.
+     * Must only be called while holding the import lease. Only batches started before the lease could last are
+     * completed, so an import whose holder lost its lease but is still finishing a write is left alone.
+     *
+     * @param now completion time to record
+     * @param startedBefore only batches started before this instant are completed
+     * @return the number of completed batches
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportBatch b SET b.completedAt = :now WHERE b.completedAt IS NULL AND b.startedAt < :startedBefore")
+    int completeAbandoned(@Param("now") Instant now, @Param("startedBefore") Instant startedBefore);
+}
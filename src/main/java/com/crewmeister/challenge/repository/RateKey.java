@@ -0,0 +1,11 @@
+package com.crewmeister.challenge.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight projection identifying a stored rate by its date and currency name.
+ *
+ * @param date         the date of the rate
+ * @param currencyName the currency name (e.g., "USD")
+ */
+public record RateKey(LocalDate date, String currencyName) { }
@@ -0,0 +1,12 @@
+package com.crewmeister.challenge.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight projection of a stored rate value.
+ *
+ * @param date         the date of the rate
+ * @param currencyName the currency name (e.g., "USD")
+ * @param rate         the exchange rate to EUR
+ */
+public record RateValue(LocalDate date, String currencyName, double rate) { }
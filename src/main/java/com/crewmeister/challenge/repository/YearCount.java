@@ -0,0 +1,9 @@
+package com.crewmeister.challenge.repository;
+
+/**
+ * Lightweight projection holding the number of stored rates of one year.
+ *
+ * @param year  the calendar year
+ * @param count the number of rates dated in that year
+ */
+public record YearCount(int year, long count) { }
@@ -0,0 +1,309 @@
+package com.crewmeister.challenge.segment;
+
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.util.CompactRateTable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable file holding all rates of one closed year.
+ * Rates are split into one block per month; each block is a {@link CompactRateTable} compressed with Deflate.
+ * The header is a sparse index with the first and last date, row count and length of every block,
+ * so a lookup reads and inflates exactly one contiguous block. Decoded blocks are kept softly reachable.
+ *
+ * <pre>
+ * int magic "RSG1", int year, int blockCount,
+ * blockCount x (long firstEpochDay, long lastEpochDay, int rowCount, int length),
+ * blockCount x deflated CompactRateTable
+ * </pre>
+ */
+public final class RateSegment implements Closeable {
+
+    private static final int MAGIC = 0x52534731; // "RSG1"
+    private static final int FIXED_HEADER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 24;
+
+    private final Path path;
+    private final int year;
+    private final long[] firstDays;
+    private final long[] lastDays;
+    private final int[] rowCounts;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final long rowCount;
+    private final FileChannel channel;
+    private final AtomicReferenceArray<SoftReference<CompactRateTable>> blocks;
+
+    private RateSegment(Path path, int year, long[] firstDays, long[] lastDays, int[] rowCounts, int[] lengths,
+                        FileChannel channel) {
+        this.path = path;
+        this.year = year;
+        this.firstDays = firstDays;
+        this.lastDays = lastDays;
+        this.rowCounts = rowCounts;
+        this.lengths = lengths;
+        this.channel = channel;
+        this.offsets = new long[lengths.length];
+        long offset = FIXED_HEADER_BYTES + (long) INDEX_ENTRY_BYTES * lengths.length;
+        long rows = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            offsets[i] = offset;
+            offset += lengths[i];
+            rows += rowCounts[i];
+        }
+        this.rowCount = rows;
+        this.blocks = new AtomicReferenceArray<>(lengths.length);
+    }
+
+    /**
+     * Writes a segment file. A later value for the same date and currency replaces an earlier one.
+     * The file is written next to its target and moved into place, so readers never see a partial file.
+     *
+     * @param path   the segment file to create or replace
+     * @param year   the year all values belong to
+     * @param values the rates of that year
+     * @return the opened segment
+     * @throws IllegalArgumentException if a value falls outside the year
+     */
+    public static RateSegment write(Path path, int year, List<RateValue> values) throws IOException {
+        TreeMap<Integer, CompactRateTable.Builder> builders = new TreeMap<>();
+        for (RateValue value : values) {
+            if (value.date().getYear() != year) {
+                throw new IllegalArgumentException("Rate on " + value.date() + " does not belong to segment " + year);
+            }
+            builders.computeIfAbsent(value.date().getMonthValue(), month -> new CompactRateTable.Builder())
+                    .add(value.date(), value.currencyName(), value.rate());
+        }
+
+        List<CompactRateTable> tables = new ArrayList<>();
+        List<byte[]> compressed = new ArrayList<>();
+        for (CompactRateTable.Builder builder : builders.values()) {
+            CompactRateTable table = builder.build();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream out = new DeflaterOutputStream(bytes)) {
+                table.writeTo(out);
+            }
+            tables.add(table);
+            compressed.add(bytes.toByteArray());
+        }
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeInt(year);
+            out.writeInt(tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                out.writeLong(tables.get(i).firstDate().toEpochDay());
+                out.writeLong(tables.get(i).lastDate().toEpochDay());
+                out.writeInt(rows(tables.get(i)).size());
+                out.writeInt(compressed.get(i).length);
+            }
+            for (byte[] block : compressed) {
+                out.write(block);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    /**
+     * Opens a segment file and reads its index. Blocks are read on demand.
+     *
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    public static RateSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel.position(0)));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a rate segment: " + path);
+            }
+            int year = in.readInt();
+            int blockCount = in.readInt();
+            long[] firstDays = new long[blockCount];
+            long[] lastDays = new long[blockCount];
+            int[] rowCounts = new int[blockCount];
+            int[] lengths = new int[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                firstDays[i] = in.readLong();
+                lastDays[i] = in.readLong();
+                rowCounts[i] = in.readInt();
+                lengths[i] = in.readInt();
+            }
+            return new RateSegment(path, year, firstDays, lastDays, rowCounts, lengths, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int year() {
+        return year;
+    }
+
+    /**
+     * @return the number of rates stored
+     */
+    public long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return whether the date belongs to this segment's year
+     */
+    public boolean covers(LocalDate date) {
+        return date.getYear() == year;
+    }
+
+    /**
+     * Looks up a single rate.
+     *
+     * @return the rate, or empty if the segment does not hold it
+     */
+    public OptionalDouble find(LocalDate date, String currency) {
+        int block = blockOf(date);
+        return block < 0 ? OptionalDouble.empty() : block(block).find(date, currency);
+    }
+
+    /**
+     * @return all rates stored for the date
+     */
+    public List<RateValue> find(LocalDate date) {
+        int block = blockOf(date);
+        List<RateValue> values = new ArrayList<>();
+        if (block >= 0) {
+            CompactRateTable table = block(block);
+            for (String currency : table.currencies()) {
+                table.find(date, currency).ifPresent(rate -> values.add(new RateValue(date, currency, rate)));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return all rates, ordered by date and, within a date, by currency in block column order
+     */
+    public List<RateValue> values() {
+        return slice(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a range of rates in the order of {@link #values()}. Blocks before the range are skipped
+     * using the row counts of the index, without being read.
+     *
+     * @param offset index of the first rate to return
+     * @param limit  maximum number of rates to return
+     */
+    public List<RateValue> slice(long offset, int limit) {
+        List<RateValue> values = new ArrayList<>((int) Math.min(limit, Math.max(0, rowCount - offset)));
+        long skip = offset;
+        for (int i = 0; i < rowCounts.length && values.size() < limit; i++) {
+            if (skip >= rowCounts[i]) {
+                skip -= rowCounts[i];
+                continue;
+            }
+            List<RateValue> rows = rows(block(i));
+            int end = (int) Math.min(rows.size(), skip + (limit - values.size()));
+            values.addAll(rows.subList((int) skip, end));
+            skip = 0;
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finds the block covering the date through the sparse index.
+     *
+     * @return the block index, or -1 if no block covers the date
+     */
+    private int blockOf(LocalDate date) {
+        long day = date.toEpochDay();
+        int low = 0;
+        int high = firstDays.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (firstDays[mid] > day) {
+                high = mid - 1;
+            } else if (lastDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private CompactRateTable block(int index) {
+        SoftReference<CompactRateTable> cached = blocks.get(index);
+        CompactRateTable table = cached == null ? null : cached.get();
+        if (table == null) {
+            table = readBlock(index);
+            blocks.set(index, new SoftReference<>(table));
+        }
+        return table;
+    }
+
+    private CompactRateTable readBlock(int index) {
+        ByteBuffer buffer = ByteBuffer.allocate(lengths[index]);
+        try {
+            long position = offsets[index];
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Unexpected end of segment " + path);
+                }
+            }
+            return CompactRateTable.readFrom(new InflaterInputStream(new ByteArrayInputStream(buffer.array())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read block " + index + " of segment " + path, e);
+        }
+    }
+
+    private static List<RateValue> rows(CompactRateTable table) {
+        List<RateValue> rows = new ArrayList<>();
+        if (table.firstDate() == null) {
+            return rows;
+        }
+        for (LocalDate date = table.firstDate(); !date.isAfter(table.lastDate()); date = date.plusDays(1)) {
+            for (String currency : table.currencies()) {
+                LocalDate day = date;
+                table.find(date, currency).ifPresent(rate -> rows.add(new RateValue(day, currency, rate)));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,207 @@
+package com.crewmeister.challenge.segment;
+
+import com.crewmeister.challenge.repository.RateValue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.OptionalDouble;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the read-only {@link RateSegment}s of closed years, one per year.
+ * Readers see an immutable snapshot of the segments; replacing a segment swaps in a new snapshot.
+ * Replaced segments stay open until shutdown, so reads that started on them can finish.
+ * Segments are only loaded when {@code rates.segments.enabled} is set; the directory must then live as long as
+ * the database, since the rows the segments replace are no longer in the table.
+ */
+@Component
+public class RateSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateSegmentStore.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("rates-(\\d{4})-(\\d+)\\.seg");
+
+    private final Path directory;
+    private final boolean enabled;
+    private final List<RateSegment> retired = new ArrayList<>();
+    private long lastGeneration;
+    private volatile NavigableMap<Integer, RateSegment> segments = Collections.emptyNavigableMap();
+
+    @Autowired
+    public RateSegmentStore(@Value("${rates.segments.dir:${java.io.tmpdir}/crewmeister-segments}") Path directory,
+                            @Value("${rates.segments.enabled:false}") boolean enabled) {
+        this.directory = directory;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Opens the newest segment file of every year found in the directory and deletes older generations.
+     * Called again when another instance wrote segments; previously open segments are retired.
+     */
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        TreeMap<Integer, Path> newest = new TreeMap<>();
+        TreeMap<Integer, Long> generations = new TreeMap<>();
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "rates-*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int year = Integer.parseInt(matcher.group(1));
+                long generation = Long.parseLong(matcher.group(2));
+                lastGeneration = Math.max(lastGeneration, generation);
+                Long current = generations.get(year);
+                if (current == null || generation > current) {
+                    if (current != null) {
+                        stale.add(newest.get(year));
+                    }
+                    generations.put(year, generation);
+                    newest.put(year, file);
+                } else {
+                    stale.add(file);
+                }
+            }
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+        TreeMap<Integer, RateSegment> loaded = new TreeMap<>();
+        for (Path file : newest.values()) {
+            RateSegment segment = RateSegment.open(file);
+            loaded.put(segment.year(), segment);
+        }
+        retired.addAll(segments.values());
+        segments = Collections.unmodifiableNavigableMap(loaded);
+        logger.info("Loaded {} rate segments with {} rates from {}", loaded.size(), rowCount(), directory);
+    }
+
+    /**
+     * Writes the rates of a year into a new segment, replacing any existing segment of that year.
+     *
+     * @param year   the closed year
+     * @param values all rates of that year
+     */
+    public synchronized void store(int year, List<RateValue> values) throws IOException {
+        lastGeneration = Math.max(lastGeneration + 1, System.currentTimeMillis());
+        Path file = directory.resolve("rates-" + year + "-" + lastGeneration + ".seg");
+        RateSegment segment = RateSegment.write(file, year, values);
+        TreeMap<Integer, RateSegment> updated = new TreeMap<>(segments);
+        RateSegment previous = updated.put(year, segment);
+        segments = Collections.unmodifiableNavigableMap(updated);
+        if (previous != null) {
+            retired.add(previous);
+            Files.deleteIfExists(previous.path());
+        }
+        logger.info("Stored segment {} with {} rates in {}", year, segment.rowCount(), file.getFileName());
+    }
+
+    /**
+     * @return whether the date belongs to a year held in a segment
+     */
+    public boolean covers(LocalDate date) {
+        return segments.containsKey(date.getYear());
+    }
+
+    /**
+     * @return the years held in segments, in ascending order
+     */
+    public NavigableSet<Integer> years() {
+        return segments.navigableKeySet();
+    }
+
+    /**
+     * @return the total number of rates across all segments
+     */
+    public long rowCount() {
+        long count = 0;
+        for (RateSegment segment : segments.values()) {
+            count += segment.rowCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of rates in the segment of the year, 0 if no segment holds it
+     */
+    public long rowCount(int year) {
+        RateSegment segment = segments.get(year);
+        return segment == null ? 0 : segment.rowCount();
+    }
+
+    public OptionalDouble find(LocalDate date, String currency) {
+        RateSegment segment = segments.get(date.getYear());
+        return segment == null ? OptionalDouble.empty() : segment.find(date, currency);
+    }
+
+    public List<RateValue> find(LocalDate date) {
+        RateSegment segment = segments.get(date.getYear());
+        return segment == null ? List.of() : segment.find(date);
+    }
+
+    /**
+     * @return all rates of the year, or an empty list if no segment holds it
+     */
+    public List<RateValue> values(int year) {
+        RateSegment segment = segments.get(year);
+        return segment == null ? List.of() : segment.values();
+    }
+
+    /**
+     * @return all rates across all segments, ordered by date
+     */
+    public List<RateValue> findAll() {
+        List<RateValue> values = new ArrayList<>();
+        for (RateSegment segment : segments.values()) {
+            values.addAll(segment.values());
+        }
+        return values;
+    }
+
+    /**
+     * Returns a range of the rates of one year, in the order of {@link RateSegment#values()}.
+     *
+     * @param year   the year
+     * @param offset index of the first rate to return
+     * @param limit  maximum number of rates to return
+     */
+    public List<RateValue> slice(int year, long offset, int limit) {
+        RateSegment segment = segments.get(year);
+        return segment == null ? List.of() : segment.slice(offset, limit);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        List<RateSegment> open = new ArrayList<>(segments.values());
+        open.addAll(retired);
+        for (RateSegment segment : open) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close segment {}: {}", segment.path(), e.getMessage());
+            }
+        }
+    }
+}
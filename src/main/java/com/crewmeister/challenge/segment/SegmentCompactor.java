@@ -0,0 +1,141 @@
+package com.crewmeister.challenge.segment;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.cluster.DatasetVersionTracker;
+import com.crewmeister.challenge.cluster.ImportCoordinator;
+import com.crewmeister.challenge.cluster.LeaseLock;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.repository.RateKey;
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.startup.StartupImportRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the rates of closed years out of the {@code currency_rates} table into {@link RateSegment}s.
+ * A year is closed once it lies more than {@code rates.segments.keep-years} years before the current one.
+ * The rows are only deleted by the next run, once the segment holds all of them: by then the version bump of the
+ * run that wrote the segment has made every instance load it, so no instance misses a rate in between.
+ * Runs after the startup import and then daily.
+ */
+@Component
+@Order(StartupImportRunner.ORDER + 5)
+@ConditionalOnProperty(name = "rates.segments.enabled", havingValue = "true")
+public class SegmentCompactor implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentCompactor.class);
+
+    private final CurrencyRateRepository currencyRateRepository;
+    private final RateSegmentStore rateSegmentStore;
+    private final CompactRateStore compactRateStore;
+    private final LeaseLock leaseLock;
+    private final DatasetVersionTracker datasetVersionTracker;
+    private final int keepYears;
+
+    @Autowired
+    public SegmentCompactor(CurrencyRateRepository currencyRateRepository,
+                            RateSegmentStore rateSegmentStore,
+                            CompactRateStore compactRateStore,
+                            LeaseLock leaseLock,
+                            DatasetVersionTracker datasetVersionTracker,
+                            @Value("${rates.segments.keep-years:0}") int keepYears) {
+        this.currencyRateRepository = currencyRateRepository;
+        this.rateSegmentStore = rateSegmentStore;
+        this.compactRateStore = compactRateStore;
+        this.leaseLock = leaseLock;
+        this.datasetVersionTracker = datasetVersionTracker;
+        this.keepYears = keepYears;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        compactExclusively();
+    }
+
+    /**
+     * Compacts closed years while holding the import lease, so compaction never overlaps an import on any instance.
+     * In a cluster, {@code rates.segments.dir} must be shared storage, since the rows leave the shared table.
+     */
+    @Scheduled(cron = "${rates.segments.cron:0 30 1 * * *}")
+    public void compactExclusively() {
+        leaseLock.runExclusively(ImportCoordinator.IMPORT_LOCK, () -> {
+            if (compactClosedYears() > 0) {
+                datasetVersionTracker.bump();
+            }
+        });
+    }
+
+    /**
+     * Compacts every closed year that still has rows in the table.
+     * Rows already held by the year's segment with the same value are deleted. Otherwise the rows, e.g. late
+     * corrections, are merged into a rewritten segment and stay in the table until the next run.
+     *
+     * @return the number of segments written
+     */
+    public synchronized int compactClosedYears() {
+        int firstOpenYear = LocalDate.now().getYear() - keepYears;
+        LocalDate oldest = currencyRateRepository.findOldestDate();
+        if (oldest == null || oldest.getYear() >= firstOpenYear) {
+            return 0;
+        }
+        int compacted = 0;
+        for (int year = oldest.getYear(); year < firstOpenYear; year++) {
+            LocalDate from = LocalDate.of(year, 1, 1);
+            LocalDate to = LocalDate.of(year, 12, 31);
+            List<RateValue> rows = currencyRateRepository.findRateValuesBetween(from, to);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            List<RateValue> archived = rateSegmentStore.values(year);
+            if (holdsAll(archived, rows)) {
+                int deleted = currencyRateRepository.deleteByDateBetween(from, to);
+                logger.info("Deleted {} rates of {} held by its segment", deleted, year);
+                continue;
+            }
+            // Table rows are added last so they replace older segment values for the same date and currency
+            List<RateValue> values = new ArrayList<>(archived);
+            values.addAll(rows);
+            try {
+                rateSegmentStore.store(year, values);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write segment for " + year, e);
+            }
+            logger.info("Compacted {} rates of {} into a segment, rows are deleted by the next run", rows.size(), year);
+            compacted++;
+        }
+        if (compacted > 0) {
+            compactRateStore.rebuild();
+        }
+        return compacted;
+    }
+
+    private static boolean holdsAll(List<RateValue> archived, List<RateValue> rows) {
+        Map<RateKey, Double> rates = new HashMap<>();
+        for (RateValue value : archived) {
+            rates.put(new RateKey(value.date(), value.currencyName()), value.rate());
+        }
+        for (RateValue row : rows) {
+            Double rate = rates.get(new RateKey(row.date(), row.currencyName()));
+            if (rate == null || rate != row.rate()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
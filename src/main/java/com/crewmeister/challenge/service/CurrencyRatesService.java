@@ -2,10 +2,12 @@ package com.crewmeister.challenge.service;
 
 import com.crewmeister.challenge.model.Currency;
 import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.util.ChangeToken;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -55,10 +57,32 @@ public interface CurrencyRatesService {
      */
     Double convertToEur(String currency, double amount, LocalDate date);
 
+    /**
+     * Retrieves the exchange rates of several dates at once, ordered by date and currency name.
+     *
+     * @param dates the dates to fetch.
+     * @param currencies the currency names to include; all currencies if empty.
+     * @return list of {@link CurrencyRates} on any of the given dates.
+     */
+    List<CurrencyRates> getCurrencyRatesByDates(Collection<LocalDate> dates, Collection<String> currencies);
+
+    /**
+     * Retrieves rates added after a position in the change feed, oldest first.
+     * Only rates of fully committed imports are returned.
+     *
+     * @param position the version and id of the last rate already seen.
+     * @param limit maximum number of rates to return.
+     * @return list of {@link CurrencyRates} following the position.
+     */
+    List<CurrencyRates> getRateChanges(ChangeToken position, int limit);
+
     /**
      * Persists a list of currency exchange rate records.
+     * Rates whose (date, currency) pair is already stored, or repeated within the list, are skipped.
+     * Inserted rates are stamped with the version of a new {@link com.crewmeister.challenge.model.ImportBatch}.
      *
      * @param rates list of {@link CurrencyRates} to be saved.
+     * @return the rates that were actually inserted.
      */
-    void saveRates(List<CurrencyRates> rates);
+    List<CurrencyRates> saveRates(List<CurrencyRates> rates);
 }
\ No newline at end of file
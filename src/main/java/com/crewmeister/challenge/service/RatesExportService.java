@@ -0,0 +1,33 @@
+package com.crewmeister.challenge.service;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Service maintaining a materialized CSV export of all stored exchange rates,
+ * in the same layout as the imported {@code exchange_rates.csv}.
+ */
+public interface RatesExportService {
+
+    /**
+     * Rewrites the export files from the current data and swaps them in atomically.
+     */
+    void materialize();
+
+    /**
+     * Returns the current export file.
+     *
+     * @param gzip whether the gzip-compressed variant is requested.
+     * @return the export, or empty if none has been materialized yet.
+     */
+    Optional<ExportFile> currentExport(boolean gzip);
+
+    /**
+     * A materialized export file.
+     *
+     * @param path   location of the file.
+     * @param length size of the file in bytes.
+     * @param etag   strong entity tag derived from the file content, including quotes.
+     */
+    record ExportFile(Path path, long length, String etag) { }
+}
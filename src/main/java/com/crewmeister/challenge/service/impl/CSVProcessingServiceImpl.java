@@ -1,6 +1,7 @@
 package com.crewmeister.challenge.service.impl;
 
 import com.crewmeister.challenge.constants.Constants;
+import com.crewmeister.challenge.event.RatesImportedEvent;
 import com.crewmeister.challenge.model.Currency;
 import com.crewmeister.challenge.model.CurrencyRates;
 import com.crewmeister.challenge.repository.CurrencyRepository;
@@ -9,20 +10,24 @@ import com.crewmeister.challenge.service.CurrencyRatesService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Service to process CSV containing currency rates data.
- * Reads a CSV file from resources, parses it, saves currency and currency rates data.
+ * Reads a CSV file, splits it at line boundaries into segments, parses the segments in parallel
+ * on a fork/join pool and saves currency and currency rates data.
  */
 @Service
 public class CSVProcessingServiceImpl implements CSVProcessingService {
@@ -31,83 +36,78 @@ public class CSVProcessingServiceImpl implements CSVProcessingService {
 
     private final CurrencyRatesService currencyRatesService;
     private final CurrencyRepository currencyRepository;
+    private final ResourceLoader resourceLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String ratesFile;
+    private final int parallelism;
 
     @Autowired
     public CSVProcessingServiceImpl(CurrencyRatesService currencyRatesService,
-                                    CurrencyRepository currencyRepository) {
+                                    CurrencyRepository currencyRepository,
+                                    ResourceLoader resourceLoader,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${rates.file.name:" + Constants.EXCHANGE_RATES_CSV + "}") String ratesFile,
+                                    @Value("${rates.import.parallelism:0}") int parallelism) {
         this.currencyRatesService = currencyRatesService;
         this.currencyRepository = currencyRepository;
+        this.resourceLoader = resourceLoader;
+        this.eventPublisher = eventPublisher;
+        this.ratesFile = ratesFile;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
     }
 
     /**
-     * Scheduled method to process CSV file daily at 1 AM.
-     * Reads currencies and rates, saves to database.
+     * Processes the CSV file. Scheduled through {@link com.crewmeister.challenge.cluster.ImportCoordinator},
+     * which makes sure only one instance imports at a time.
+     * Reads currencies and rates, saves to database and publishes a {@link RatesImportedEvent} if anything was new.
      */
     @Override
-    @Scheduled(cron = "0 0 1 * * *") // Runs daily at 1 AM
     public void processCSV() {
-        logger.info("Starting CSV processing for exchange rates.");
+        logger.info("Starting CSV processing for exchange rates from '{}'.", ratesFile);
 
         try {
-            ClassPathResource resource = new ClassPathResource(Constants.EXCHANGE_RATES_CSV);
-            try (InputStream inputStream = resource.getInputStream();
-                 BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-
-                // Read the header line to get currency codes
-                String headerLine = reader.readLine();
-                if (headerLine == null) {
-                    logger.warn("CSV file is empty or missing header.");
-                    return;
-                }
-
-                String[] headers = headerLine.split(Constants.REGEX);
-                List<String> currencyCodes = Arrays.asList(headers).subList(1, headers.length);
-
-                // Ensure all currencies exist in DB, cache in a map
-                Map<String, Currency> currencyMap = new HashMap<>();
-                for (String code : currencyCodes) {
-                    Currency currency = currencyRepository.findByCurrencyName(code)
-                            .orElseGet(() -> {
-                                logger.info("Currency '{}' not found. Creating new entry.", code);
-                                Currency newCurrency = new Currency();
-                                newCurrency.setCurrencyName(code);
-                                return currencyRepository.save(newCurrency);
-                            });
-                    currencyMap.put(code, currency);
-                }
-
-                List<CurrencyRates> allRates = new ArrayList<>();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Constants.M_D_YYYY);
-
-                String line;
-                int lineCount = 1; // For logging/debugging
-
-                while ((line = reader.readLine()) != null) {
-                    lineCount++;
-                    try {
-                        String[] values = line.split(Constants.REGEX);
-                        LocalDate date = LocalDate.parse(values[0], formatter);
-
-                        for (int i = 1; i < values.length; i++) {
-                            String code = headers[i];
-                            double rate = Double.parseDouble(values[i]);
-
-                            CurrencyRates rateEntry = new CurrencyRates();
-                            rateEntry.setDate(date);
-                            rateEntry.setCurrency(currencyMap.get(code));
-                            rateEntry.setRate(rate);
-
-                            allRates.add(rateEntry);
-                        }
-                    } catch (Exception parseEx) {
-                        logger.error("Failed to parse CSV line {}: '{}'. Error: {}", lineCount, line, parseEx.getMessage());
-                        // Continue processing remaining lines
-                    }
-                }
-
-                // Batch save all currency rates
-                currencyRatesService.saveRates(allRates);
-                logger.info("CSV import completed successfully: {} rates saved.", allRates.size());
+            CsvSegments csv = readSegments(resolveSource());
+
+            // Read the header line to get currency codes
+            String headerLine = csv.header();
+            if (headerLine == null) {
+                logger.warn("CSV file is empty or missing header.");
+                return;
+            }
+
+            String[] headers = headerLine.split(Constants.REGEX);
+            List<String> currencyCodes = Arrays.asList(headers).subList(1, headers.length);
+
+            // Ensure all currencies exist in DB, cache in a map
+            Map<String, Currency> currencyMap = new HashMap<>();
+            for (String code : currencyCodes) {
+                Currency currency = currencyRepository.findByCurrencyName(code)
+                        .orElseGet(() -> {
+                            logger.info("Currency '{}' not found. Creating new entry.", code);
+                            Currency newCurrency = new Currency();
+                            newCurrency.setCurrencyName(code);
+                            return currencyRepository.save(newCurrency);
+                        });
+                currencyMap.put(code, currency);
+            }
+
+            List<CurrencyRates> allRates;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                allRates = pool.invoke(new CsvSegmentParseTask(
+                        csv.segments(), 0, csv.segments().size(), headers, currencyMap));
+            } finally {
+                pool.shutdown();
+            }
+            logger.debug("Parsed {} rates from {} segments using {} threads", allRates.size(), csv.segments().size(), parallelism);
+
+            // Batch save all currency rates
+            List<CurrencyRates> savedRates = currencyRatesService.saveRates(allRates);
+            logger.info("CSV import completed successfully: {} rates processed, {} new.", allRates.size(), savedRates.size());
+
+            // Let caches and other derived views pick up the new data
+            if (!savedRates.isEmpty()) {
+                eventPublisher.publishEvent(new RatesImportedEvent(savedRates));
             }
 
         } catch (Exception e) {
@@ -116,4 +116,28 @@ public class CSVProcessingServiceImpl implements CSVProcessingService {
             throw new RuntimeException("Error processing CSV file", e);
         }
     }
+
+    /**
+     * Resolves the configured source. Plain names are looked up on the classpath,
+     * prefixed locations (e.g. {@code file:/data/rates.csv}) go through the resource loader.
+     */
+    private Resource resolveSource() {
+        return ratesFile.contains(":") ? resourceLoader.getResource(ratesFile) : new ClassPathResource(ratesFile);
+    }
+
+    /**
+     * Memory-maps the source when it is a real file, otherwise reads it fully into memory.
+     * Either way it is split into several segments per parser thread for load balancing.
+     */
+    private CsvSegments readSegments(Resource resource) throws Exception {
+        int targetSegments = parallelism * 4;
+        if (resource.isFile()) {
+            try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                return CsvSegments.map(channel, targetSegments);
+            }
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return CsvSegments.split(ByteBuffer.wrap(inputStream.readAllBytes()), targetSegments);
+        }
+    }
 }
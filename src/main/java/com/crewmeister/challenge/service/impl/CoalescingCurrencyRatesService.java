@@ -0,0 +1,81 @@
+package com.crewmeister.challenge.service.impl;
+
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.crewmeister.challenge.util.ChangeToken;
+import com.crewmeister.challenge.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Coalesces concurrent identical reads in front of {@link CurrencyRatesServiceImpl}.
+ * When many requests miss the cache for the same date at once, only one of them queries the database;
+ * the others wait for and share its result, which by then is also in the query cache.
+ * Shared entities are loaded with their currency, so no caller triggers lazy loading on them.
+ * Other operations are delegated unchanged.
+ */
+@Service
+@Primary
+public class CoalescingCurrencyRatesService implements CurrencyRatesService {
+
+    private final CurrencyRatesService delegate;
+    private final SingleFlight<String, List<Currency>> currencyCalls = new SingleFlight<>();
+    private final SingleFlight<LocalDate, List<CurrencyRates>> dateCalls = new SingleFlight<>();
+    private final SingleFlight<DateCurrencyKey, CurrencyRates> dateCurrencyCalls = new SingleFlight<>();
+
+    @Autowired
+    public CoalescingCurrencyRatesService(CurrencyRatesServiceImpl delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Currency> getAllCurrencies() {
+        return currencyCalls.execute("all", delegate::getAllCurrencies);
+    }
+
+    @Override
+    public Page<CurrencyRates> getAllCurrencyRates(Pageable pageable) {
+        return delegate.getAllCurrencyRates(pageable);
+    }
+
+    @Override
+    public List<CurrencyRates> getCurrencyRatesByDate(LocalDate date) {
+        return dateCalls.execute(date, () -> delegate.getCurrencyRatesByDate(date));
+    }
+
+    @Override
+    public List<CurrencyRates> getCurrencyRatesByDates(Collection<LocalDate> dates, Collection<String> currencies) {
+        return delegate.getCurrencyRatesByDates(dates, currencies);
+    }
+
+    @Override
+    public CurrencyRates getCurrencyRateByDateAndCurrency(LocalDate date, String currency) {
+        return dateCurrencyCalls.execute(new DateCurrencyKey(date, currency),
+                () -> delegate.getCurrencyRateByDateAndCurrency(date, currency));
+    }
+
+    @Override
+    public Double convertToEur(String currency, double amount, LocalDate date) {
+        return delegate.convertToEur(currency, amount, date);
+    }
+
+    @Override
+    public List<CurrencyRates> getRateChanges(ChangeToken position, int limit) {
+        return delegate.getRateChanges(position, limit);
+    }
+
+    @Override
+    public List<CurrencyRates> saveRates(List<CurrencyRates> rates) {
+        return delegate.saveRates(rates);
+    }
+
+    private record DateCurrencyKey(LocalDate date, String currency) { }
+}
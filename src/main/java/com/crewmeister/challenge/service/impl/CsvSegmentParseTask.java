@@ -0,0 +1,114 @@
+package com.crewmeister.challenge.service.impl;
+
+import com.crewmeister.challenge.constants.Constants;
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task parsing a range of CSV segments into currency rates.
+ * Ranges are halved until a single segment remains; results are concatenated in file order.
+ */
+class CsvSegmentParseTask extends RecursiveTask<List<CurrencyRates>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvSegmentParseTask.class);
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(Constants.M_D_YYYY);
+
+    private final List<ByteBuffer> segments;
+    private final int from;
+    private final int to;
+    private final String[] headers;
+    private final Map<String, Currency> currencyMap;
+
+    /**
+     * @param segments    all segments of the file
+     * @param from        first segment to parse (inclusive)
+     * @param to          last segment to parse (exclusive)
+     * @param headers     header columns; index 0 is the date column
+     * @param currencyMap persisted currencies keyed by code
+     */
+    CsvSegmentParseTask(List<ByteBuffer> segments, int from, int to, String[] headers, Map<String, Currency> currencyMap) {
+        this.segments = segments;
+        this.from = from;
+        this.to = to;
+        this.headers = headers;
+        this.currencyMap = currencyMap;
+    }
+
+    @Override
+    protected List<CurrencyRates> compute() {
+        if (to - from <= 1) {
+            return from < to ? parseSegment(from) : new ArrayList<>();
+        }
+        int mid = (from + to) >>> 1;
+        CsvSegmentParseTask left = new CsvSegmentParseTask(segments, from, mid, headers, currencyMap);
+        CsvSegmentParseTask right = new CsvSegmentParseTask(segments, mid, to, headers, currencyMap);
+        left.fork();
+        List<CurrencyRates> rightRates = right.compute();
+        List<CurrencyRates> rates = left.join();
+        rates.addAll(rightRates);
+        return rates;
+    }
+
+    private List<CurrencyRates> parseSegment(int index) {
+        ByteBuffer buffer = segments.get(index).duplicate();
+        List<CurrencyRates> rates = new ArrayList<>();
+        byte[] line = new byte[256];
+        int length = 0;
+        int lineCount = 0; // For logging/debugging, relative to the segment
+
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                parseLine(new String(line, 0, length, StandardCharsets.US_ASCII), index, ++lineCount, rates);
+                length = 0;
+            } else if (b != '\r') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+        if (length > 0) {
+            parseLine(new String(line, 0, length, StandardCharsets.US_ASCII), index, ++lineCount, rates);
+        }
+        return rates;
+    }
+
+    private void parseLine(String line, int segment, int lineCount, List<CurrencyRates> rates) {
+        if (line.isBlank()) {
+            return;
+        }
+        try {
+            String[] values = line.split(Constants.REGEX);
+            LocalDate date = LocalDate.parse(values[0], FORMATTER);
+
+            for (int i = 1; i < values.length; i++) {
+                if (values[i].isBlank()) {
+                    continue; // Currency not quoted on this date
+                }
+                CurrencyRates rateEntry = new CurrencyRates();
+                rateEntry.setDate(date);
+                rateEntry.setCurrency(currencyMap.get(headers[i]));
+                rateEntry.setRate(Double.parseDouble(values[i]));
+
+                rates.add(rateEntry);
+            }
+        } catch (Exception parseEx) {
+            logger.error("Failed to parse CSV segment {} line {}: '{}'. Error: {}", segment, lineCount, line, parseEx.getMessage());
+            // Continue processing remaining lines
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.crewmeister.challenge.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A CSV source split into a header line and data segments that each end on a line boundary,
+ * so that the segments can be parsed independently and in parallel.
+ */
+final class CsvSegments {
+
+    /** Upper bound for a single segment, since a mapped buffer cannot exceed {@code Integer.MAX_VALUE} bytes. */
+    private static final long MAX_SEGMENT_BYTES = 256L * 1024 * 1024;
+
+    private static final int SCAN_BUFFER_BYTES = 512;
+
+    private final String header;
+    private final List<ByteBuffer> segments;
+
+    private CsvSegments(String header, List<ByteBuffer> segments) {
+        this.header = header;
+        this.segments = segments;
+    }
+
+    /**
+     * @return the header line without its line terminator, or {@code null} if the source is empty
+     */
+    String header() {
+        return header;
+    }
+
+    /**
+     * @return the data segments, in file order
+     */
+    List<ByteBuffer> segments() {
+        return segments;
+    }
+
+    /**
+     * Memory-maps a file in read-only segments. The mappings stay valid after the channel is closed.
+     *
+     * @param channel        channel of the CSV file
+     * @param targetSegments desired number of segments; more are used if a segment would get too large
+     */
+    static CsvSegments map(FileChannel channel, int targetSegments) throws IOException {
+        long size = channel.size();
+        long dataStart = nextLineStart(channel, 0, size);
+        if (dataStart == 0) {
+            return new CsvSegments(null, List.of());
+        }
+        ByteBuffer headerBytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, dataStart);
+        String header = stripLineEnd(StandardCharsets.US_ASCII.decode(headerBytes).toString());
+
+        List<ByteBuffer> segments = new ArrayList<>();
+        long start = dataStart;
+        for (long end : boundaries(dataStart, size, targetSegments, pos -> nextLineStart(channel, pos, size))) {
+            segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            start = end;
+        }
+        return new CsvSegments(header.isEmpty() ? null : header, segments);
+    }
+
+    /**
+     * Splits an in-memory CSV into segments sharing the given buffer's content.
+     *
+     * @param data           the complete CSV content
+     * @param targetSegments desired number of segments
+     */
+    static CsvSegments split(ByteBuffer data, int targetSegments) throws IOException {
+        int size = data.limit();
+        int dataStart = (int) nextLineStart(data, 0, size);
+        if (dataStart == 0) {
+            return new CsvSegments(null, List.of());
+        }
+        String header = stripLineEnd(new String(bytes(data, 0, dataStart), StandardCharsets.US_ASCII));
+
+        List<ByteBuffer> segments = new ArrayList<>();
+        int start = dataStart;
+        for (long end : boundaries(dataStart, size, targetSegments, pos -> nextLineStart(data, pos, size))) {
+            segments.add(data.slice(start, (int) end - start));
+            start = (int) end;
+        }
+        return new CsvSegments(header.isEmpty() ? null : header, segments);
+    }
+
+    /**
+     * Computes segment end offsets, each moved forward to the start of the next line.
+     */
+    private static List<Long> boundaries(long dataStart, long size, int targetSegments, LineFinder finder)
+            throws IOException {
+        long dataSize = size - dataStart;
+        long count = Math.max(Math.max(1, targetSegments), (dataSize + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+        long step = Math.max(1, dataSize / count);
+        List<Long> ends = new ArrayList<>();
+        long start = dataStart;
+        for (long i = 1; i <= count && start < size; i++) {
+            long end = i == count ? size : finder.nextLineStart(Math.max(start, dataStart + i * step));
+            if (end > start) {
+                ends.add(end);
+                start = end;
+            }
+        }
+        return ends;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long pos = from;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private static long nextLineStart(ByteBuffer data, long from, int size) {
+        for (int i = (int) from; i < size; i++) {
+            if (data.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return size;
+    }
+
+    private static byte[] bytes(ByteBuffer data, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        data.get(from, bytes);
+        return bytes;
+    }
+
+    private static String stripLineEnd(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    @FunctionalInterface
+    private interface LineFinder {
+        long nextLineStart(long from) throws IOException;
+    }
+}
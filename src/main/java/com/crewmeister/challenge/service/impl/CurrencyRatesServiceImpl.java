@@ -1,27 +1,57 @@
 package com.crewmeister.challenge.service.impl;
 
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.cluster.ImportCoordinator;
+import com.crewmeister.challenge.cluster.LeaseLock;
 import com.crewmeister.challenge.model.Currency;
 import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.model.ImportBatch;
+import com.crewmeister.challenge.repository.CurrencyRateBatchWriter;
 import com.crewmeister.challenge.repository.CurrencyRateRepository;
 import com.crewmeister.challenge.repository.CurrencyRepository;
+import com.crewmeister.challenge.repository.ImportBatchRepository;
+import com.crewmeister.challenge.repository.RateKey;
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.repository.YearCount;
+import com.crewmeister.challenge.segment.RateSegmentStore;
 import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.crewmeister.challenge.util.ChangeToken;
+import com.crewmeister.challenge.util.OffsetPageable;
+import com.crewmeister.challenge.util.RateCoverage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Service implementation for managing currency rates.
  * Provides operations to retrieve and save currency and rates data.
+ * Read operations run in read-only transactions, which are served by the read connection pool.
+ * Rates of closed years may live in a {@link RateSegmentStore} instead of the table; reads merge both tiers.
  */
 @Service
 public class CurrencyRatesServiceImpl implements CurrencyRatesService {
@@ -30,12 +60,27 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
 
     private final CurrencyRateRepository currencyRateRepository;
     private final CurrencyRepository currencyRepository;
+    private final CurrencyRateBatchWriter currencyRateBatchWriter;
+    private final CompactRateStore compactRateStore;
+    private final ImportBatchRepository importBatchRepository;
+    private final RateSegmentStore rateSegmentStore;
+    private final LeaseLock leaseLock;
 
     @Autowired
     public CurrencyRatesServiceImpl(CurrencyRateRepository currencyRateRepository,
-                                    CurrencyRepository currencyRepository) {
+                                    CurrencyRepository currencyRepository,
+                                    CurrencyRateBatchWriter currencyRateBatchWriter,
+                                    CompactRateStore compactRateStore,
+                                    ImportBatchRepository importBatchRepository,
+                                    RateSegmentStore rateSegmentStore,
+                                    LeaseLock leaseLock) {
         this.currencyRateRepository = currencyRateRepository;
         this.currencyRepository = currencyRepository;
+        this.currencyRateBatchWriter = currencyRateBatchWriter;
+        this.compactRateStore = compactRateStore;
+        this.importBatchRepository = importBatchRepository;
+        this.rateSegmentStore = rateSegmentStore;
+        this.leaseLock = leaseLock;
     }
 
     /**
@@ -44,25 +89,57 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
      * @return list of Currency entities
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Currency> getAllCurrencies() {
         logger.debug("Fetching all currencies from database");
         List<Currency> currencies = currencyRepository.findAllCurrency();
-        logger.info("Fetched {} currencies", currencies.size());
+        logger.debug("Fetched {} currencies", currencies.size());
         return currencies;
     }
 
     /**
      * Retrieve all currency rates with pagination support.
+     * While segments hold closed years, rates are paged year by year in date order: table rows of a year win over
+     * segment rates of the same date and currency, and whole years before the page are skipped by their counts.
      *
      * @param pageable pagination information
      * @return paged currency rates
+     * @throws IllegalArgumentException if segments exist and the sort is not by date alone
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<CurrencyRates> getAllCurrencyRates(Pageable pageable) {
         logger.debug("Fetching all currency rates with pageable: {}", pageable);
-        Page<CurrencyRates> page = currencyRateRepository.findAll(pageable);
-        logger.info("Fetched {} currency rates on current page", page.getNumberOfElements());
-        return page;
+        NavigableSet<Integer> archivedYears = rateSegmentStore.years();
+        if (archivedYears.isEmpty()) {
+            Page<CurrencyRates> page = currencyRateRepository.findAll(pageable);
+            logger.debug("Fetched {} currency rates on current page", page.getNumberOfElements());
+            return page;
+        }
+
+        Sort.Direction direction = dateDirection(pageable.getSort());
+        List<YearPart> parts = yearParts(archivedYears, direction);
+        long total = 0;
+        for (YearPart part : parts) {
+            total += part.count();
+        }
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        long limit = pageable.isPaged() ? pageable.getPageSize() : total;
+        List<CurrencyRates> content = new ArrayList<>((int) Math.min(limit, 1024));
+        for (YearPart part : parts) {
+            if (content.size() >= limit) {
+                break;
+            }
+            if (skip >= part.count()) {
+                skip -= part.count();
+                continue;
+            }
+            int wanted = (int) Math.min(limit - content.size(), part.count() - skip);
+            content.addAll(readYear(part, skip, wanted, direction));
+            skip = 0;
+        }
+        logger.debug("Fetched {} currency rates on current page", content.size());
+        return new PageImpl<>(content, pageable, total);
     }
 
     /**
@@ -72,14 +149,52 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
      * @return list of CurrencyRates for the given date
      */
     @Override
+    @Transactional(readOnly = true)
     public List<CurrencyRates> getCurrencyRatesByDate(LocalDate date) {
         logger.debug("Fetching currency rates for date: {}", date);
         List<CurrencyRates> rates = currencyRateRepository.findByDate(date);
+        if (rateSegmentStore.covers(date)) {
+            rates = mergeArchived(rates, rateSegmentStore.find(date));
+        }
         if (rates.isEmpty()) {
             logger.warn("No currency rates found for date: {}", date);
         } else {
-            logger.info("Found {} currency rates for date {}", rates.size(), date);
+            logger.debug("Found {} currency rates for date {}", rates.size(), date);
+        }
+        return rates;
+    }
+
+    /**
+     * Retrieve the currency rates of several dates with a single query.
+     *
+     * @param dates the dates for which rates are fetched
+     * @param currencies the currency codes to include; all currencies if empty
+     * @return list of CurrencyRates ordered by date and currency
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CurrencyRates> getCurrencyRatesByDates(Collection<LocalDate> dates, Collection<String> currencies) {
+        logger.debug("Fetching currency rates for {} dates and currencies {}", dates.size(), currencies);
+        if (dates.isEmpty()) {
+            return List.of();
         }
+        List<CurrencyRates> rates = currencies.isEmpty()
+                ? currencyRateRepository.findByDates(dates)
+                : currencyRateRepository.findByDatesAndCurrencies(dates, currencies);
+        List<RateValue> archived = new ArrayList<>();
+        for (LocalDate date : dates) {
+            if (rateSegmentStore.covers(date)) {
+                for (RateValue value : rateSegmentStore.find(date)) {
+                    if (currencies.isEmpty() || currencies.contains(value.currencyName())) {
+                        archived.add(value);
+                    }
+                }
+            }
+        }
+        if (!archived.isEmpty()) {
+            rates = mergeArchived(rates, archived);
+        }
+        logger.debug("Found {} currency rates for {} dates", rates.size(), dates.size());
         return rates;
     }
 
@@ -92,9 +207,11 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
      * @throws NoSuchElementException if no rate found
      */
     @Override
+    @Transactional(readOnly = true)
     public CurrencyRates getCurrencyRateByDateAndCurrency(LocalDate date, String currency) {
         logger.debug("Fetching currency rate for currency '{}' on date {}", currency, date);
-        Optional<CurrencyRates> currencyRate = currencyRateRepository.findByDateAndCurrency_CurrencyName(date, currency);
+        Optional<CurrencyRates> currencyRate = currencyRateRepository.findByDateAndCurrency_CurrencyName(date, currency)
+                .or(() -> findArchived(date, currency));
         return currencyRate.orElseThrow(() -> {
             logger.error("No currency rate found for currency '{}' on date {}", currency, date);
             return new NoSuchElementException("No record for currency or date found");
@@ -103,6 +220,7 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
 
     /**
      * Converts the given amount of the specified currency to EUR based on the rate on the specified date.
+     * The rate is read from the {@link CompactRateStore}; the database is only queried if the store does not hold it.
      *
      * @param currency the currency code
      * @param amount the amount to convert
@@ -112,18 +230,25 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
      * @throws IllegalArgumentException if amount is negative
      */
     @Override
+    @Transactional(readOnly = true)
     public Double convertToEur(String currency, double amount, LocalDate date) {
-        logger.debug("Converting amount {} {} to EUR on date {}", amount, currency, date);
-
         if (amount < 0) {
             logger.error("Invalid amount for conversion: {}", amount);
             throw new IllegalArgumentException("Amount must be non-negative");
         }
 
-        Optional<CurrencyRates> currencyRate = currencyRateRepository.findByDateAndCurrency_CurrencyName(date, currency);
+        OptionalDouble compactRate = compactRateStore.find(date, currency);
+        if (compactRate.isPresent()) {
+            double converted = compactRate.getAsDouble() * amount;
+            logger.debug("Conversion result: {} {} = {} EUR on {}", amount, currency, converted, date);
+            return converted;
+        }
+
+        Optional<CurrencyRates> currencyRate = currencyRateRepository.findByDateAndCurrency_CurrencyName(date, currency)
+                .or(() -> findArchived(date, currency));
         return currencyRate.map(rate -> {
             double converted = rate.getRate() * amount;
-            logger.info("Conversion result: {} {} = {} EUR on {}", amount, currency, converted, date);
+            logger.debug("Conversion result: {} {} = {} EUR on {}", amount, currency, converted, date);
             return converted;
         })
         .orElseThrow(() -> {
@@ -132,34 +257,273 @@ public class CurrencyRatesServiceImpl implements CurrencyRatesService {
         });
     }
 
+    /**
+     * Retrieve rates added after the given change feed position.
+     *
+     * @param position the last position the client has seen
+     * @param limit maximum number of rates to return
+     * @return rates ordered by version and id
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CurrencyRates> getRateChanges(ChangeToken position, int limit) {
+        long upToVersion = importBatchRepository.findLatestCompletedVersion();
+        List<CurrencyRates> changes = currencyRateRepository.findChangesAfter(
+                position.version(), position.id(), upToVersion, PageRequest.of(0, limit));
+        logger.debug("Found {} rate changes after {} (up to version {})", changes.size(), position, upToVersion);
+        return changes;
+    }
+
     /**
      * Saves a batch of currency rates, avoiding duplicates.
-     * Uses SERIALIZABLE isolation to ensure consistency during concurrent saves.
+     * Stored (date, currency) pairs are loaded once into a {@link RateCoverage} and incoming rates are filtered
+     * against it in memory. Duplicates within the batch itself are tracked separately, so the stored coverage
+     * only ever holds pairs that were actually written.
+     * Segments are not a duplicate filter: a rate of a closed year is only skipped if its segment holds the same
+     * value, looked up in the one block covering its date; a different value is imported as a correction.
+     * The remaining rates go to {@link CurrencyRateBatchWriter}; the unique (date, currency) index keeps
+     * the result consistent when the same rows are ingested concurrently.
+     * The writer commits per chunk, so the import is not atomic: if it fails, the chunks committed so far are kept
+     * and completed as this import's version, and the next import inserts the rest. The writer also stops once the
+     * {@value ImportCoordinator#IMPORT_LOCK} lease is lost, so it never writes next to the instance taking over.
      *
      * @param rates list of CurrencyRates to save
+     * @return the rates that were actually inserted
      */
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void saveRates(List<CurrencyRates> rates) {
+    public List<CurrencyRates> saveRates(List<CurrencyRates> rates) {
         logger.debug("Saving batch of {} currency rates", rates.size());
-        int savedCount = 0;
+        List<RateKey> existingKeys = currencyRateRepository.findAllRateKeys();
+        RateCoverage stored = newCoverage(existingKeys, rates);
+        for (RateKey key : existingKeys) {
+            stored.add(key.date(), key.currencyName());
+        }
+        RateCoverage pending = newCoverage(existingKeys, rates);
+
+        List<CurrencyRates> newRates = new ArrayList<>();
         for (CurrencyRates rate : rates) {
             try {
-                Optional<CurrencyRates> existingRate = currencyRateRepository.findByDateAndCurrency_CurrencyName(
-                    rate.getDate(), rate.getCurrency().getCurrencyName());
-
-                if (existingRate.isEmpty()) {
-                    currencyRateRepository.save(rate);
-                    savedCount++;
-                } else {
+                String currencyName = rate.getCurrency().getCurrencyName();
+                if (stored.contains(rate.getDate(), currencyName)) {
                     logger.debug("Currency rate already exists for currency '{}' on date {}, skipping save.",
-                        rate.getCurrency().getCurrencyName(), rate.getDate());
+                        currencyName, rate.getDate());
+                } else if (isArchived(rate.getDate(), currencyName, rate.getRate())) {
+                    logger.debug("Currency rate for currency '{}' on date {} is archived unchanged, skipping save.",
+                        currencyName, rate.getDate());
+                } else if (!pending.add(rate.getDate(), currencyName)) {
+                    logger.debug("Duplicate currency rate for currency '{}' on date {} in batch, skipping save.",
+                        currencyName, rate.getDate());
+                } else {
+                    newRates.add(rate);
                 }
             } catch (Exception e) {
-                logger.error("Error saving currency rate for currency '{}' on date {}: {}",
-                    rate.getCurrency().getCurrencyName(), rate.getDate(), e.getMessage());
+                logger.error("Skipping invalid currency rate for currency '{}' on date {}: {}",
+                    rate.getCurrency() != null ? rate.getCurrency().getCurrencyName() : null, rate.getDate(), e.getMessage());
+            }
+        }
+
+        if (newRates.isEmpty()) {
+            logger.info("Saved 0 new currency rates out of {}", rates.size());
+            return List.of();
+        }
+
+        // Stamp the new rates with the version of this import for the change feed
+        ImportBatch batch = new ImportBatch();
+        batch.setStartedAt(Instant.now());
+        batch = importBatchRepository.save(batch);
+        for (CurrencyRates rate : newRates) {
+            rate.setVersion(batch.getId());
+        }
+
+        List<CurrencyRates> saved;
+        try {
+            saved = currencyRateBatchWriter.write(newRates, () -> leaseLock.isLost(ImportCoordinator.IMPORT_LOCK));
+        } catch (RuntimeException e) {
+            // Chunks committed before the failure stay; complete the batch with them so the change feed moves on
+            logger.error("Failed to save currency rates of version {}: {}", batch.getId(), e.getMessage(), e);
+            saved = currencyRateRepository.findByVersion(batch.getId());
+        }
+        batch.setCompletedAt(Instant.now());
+        batch.setRateCount(saved.size());
+        importBatchRepository.save(batch);
+        logger.info("Saved {} new currency rates out of {} as version {}", saved.size(), rates.size(), batch.getId());
+        return saved;
+    }
+
+    /**
+     * @return whether a segment already holds exactly this rate
+     */
+    private boolean isArchived(LocalDate date, String currencyName, double rate) {
+        if (!rateSegmentStore.covers(date)) {
+            return false;
+        }
+        OptionalDouble archived = rateSegmentStore.find(date, currencyName);
+        return archived.isPresent() && archived.getAsDouble() == rate;
+    }
+
+    /**
+     * Rates of one year as paged by {@link #getAllCurrencyRates(Pageable)}.
+     *
+     * @param year   the year
+     * @param count  number of distinct rates of the year across both tiers
+     * @param stored table rows of an archived year, merged over its segment; {@code null} if no segment holds the year
+     */
+    private record YearPart(int year, long count, List<CurrencyRates> stored) { }
+
+    private static Sort.Direction dateDirection(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Sort.Direction.ASC;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() == 1 && "date".equals(orders.get(0).getProperty())) {
+            return orders.get(0).getDirection();
+        }
+        throw new IllegalArgumentException("Rates can only be sorted by date while closed years are held in segments");
+    }
+
+    /**
+     * Counts the distinct rates of every year in both tiers, in the order they are paged.
+     * Table rows of an archived year are loaded to subtract those the segment holds as well.
+     */
+    private List<YearPart> yearParts(NavigableSet<Integer> archivedYears, Sort.Direction direction) {
+        Map<Integer, Long> tableCounts = new HashMap<>();
+        for (YearCount yearCount : currencyRateRepository.countByYear()) {
+            tableCounts.put(yearCount.year(), yearCount.count());
+        }
+        TreeSet<Integer> years = new TreeSet<>(tableCounts.keySet());
+        years.addAll(archivedYears);
+        List<YearPart> parts = new ArrayList<>(years.size());
+        for (int year : direction.isAscending() ? years : years.descendingSet()) {
+            long tableCount = tableCounts.getOrDefault(year, 0L);
+            if (!archivedYears.contains(year)) {
+                parts.add(new YearPart(year, tableCount, null));
+                continue;
+            }
+            List<CurrencyRates> stored = tableCount == 0 ? List.of() : currencyRateRepository.findByDateBetween(
+                    LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31), Pageable.unpaged());
+            long overlapping = 0;
+            for (CurrencyRates rate : stored) {
+                if (rateSegmentStore.find(rate.getDate(), rate.getCurrency().getCurrencyName()).isPresent()) {
+                    overlapping++;
+                }
+            }
+            parts.add(new YearPart(year, rateSegmentStore.rowCount(year) + stored.size() - overlapping, stored));
+        }
+        return parts;
+    }
+
+    /**
+     * Reads a window of one year's rates in the paging order.
+     */
+    private List<CurrencyRates> readYear(YearPart part, long offset, int limit, Sort.Direction direction) {
+        if (part.stored() == null) {
+            Sort sort = Sort.by(direction, "date").and(Sort.by(direction, "id"));
+            return currencyRateRepository.findByDateBetween(LocalDate.of(part.year(), 1, 1),
+                    LocalDate.of(part.year(), 12, 31), new OffsetPageable(offset, limit, sort));
+        }
+        if (part.stored().isEmpty()) {
+            // Only the needed blocks of the segment are read
+            long from = direction.isAscending() ? offset : part.count() - offset - limit;
+            List<CurrencyRates> rates = toEntities(rateSegmentStore.slice(part.year(), from, limit));
+            if (!direction.isAscending()) {
+                Collections.reverse(rates);
             }
+            return rates;
+        }
+        List<CurrencyRates> merged = mergeArchived(part.stored(), rateSegmentStore.values(part.year()));
+        if (!direction.isAscending()) {
+            Collections.reverse(merged);
+        }
+        return new ArrayList<>(merged.subList((int) offset, (int) offset + limit));
+    }
+
+    /**
+     * Looks up a single rate in the segments.
+     */
+    private Optional<CurrencyRates> findArchived(LocalDate date, String currency) {
+        OptionalDouble rate = rateSegmentStore.find(date, currency);
+        if (rate.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toEntity(new RateValue(date, currency, rate.getAsDouble()), currenciesByName()));
+    }
+
+    /**
+     * Adds segment rates for (date, currency) pairs missing from the table rows, ordered by date and currency name.
+     * Table rows win, so corrections written after compaction are served.
+     */
+    private List<CurrencyRates> mergeArchived(List<CurrencyRates> stored, List<RateValue> archived) {
+        Set<RateKey> storedKeys = new HashSet<>();
+        for (CurrencyRates rate : stored) {
+            storedKeys.add(new RateKey(rate.getDate(), rate.getCurrency().getCurrencyName()));
+        }
+        List<CurrencyRates> merged = new ArrayList<>(stored);
+        Map<String, Currency> currencies = currenciesByName();
+        for (RateValue value : archived) {
+            if (!storedKeys.contains(new RateKey(value.date(), value.currencyName()))) {
+                merged.add(toEntity(value, currencies));
+            }
+        }
+        merged.sort(Comparator.comparing(CurrencyRates::getDate)
+                .thenComparing(rate -> rate.getCurrency().getCurrencyName()));
+        return merged;
+    }
+
+    private List<CurrencyRates> toEntities(List<RateValue> values) {
+        Map<String, Currency> currencies = currenciesByName();
+        List<CurrencyRates> entities = new ArrayList<>(values.size());
+        for (RateValue value : values) {
+            entities.add(toEntity(value, currencies));
+        }
+        return entities;
+    }
+
+    /**
+     * Creates a detached entity for a segment rate. Segment rates have no id and no change feed version.
+     */
+    private static CurrencyRates toEntity(RateValue value, Map<String, Currency> currencies) {
+        CurrencyRates rate = new CurrencyRates();
+        rate.setDate(value.date());
+        rate.setRate(value.rate());
+        rate.setCurrency(currencies.computeIfAbsent(value.currencyName(), name -> {
+            Currency currency = new Currency();
+            currency.setCurrencyName(name);
+            return currency;
+        }));
+        return rate;
+    }
+
+    private Map<String, Currency> currenciesByName() {
+        Map<String, Currency> currencies = new HashMap<>();
+        for (Currency currency : currencyRepository.findAllCurrency()) {
+            currencies.put(currency.getCurrencyName(), currency);
+        }
+        return currencies;
+    }
+
+    /**
+     * Creates a coverage sized so that every stored and incoming (date, currency) pair can be addressed.
+     */
+    private static RateCoverage newCoverage(List<RateKey> existingKeys, List<CurrencyRates> rates) {
+        LocalDate min = LocalDate.MAX;
+        LocalDate max = LocalDate.MIN;
+        Set<String> currencies = new LinkedHashSet<>();
+        for (RateKey key : existingKeys) {
+            min = key.date().isBefore(min) ? key.date() : min;
+            max = key.date().isAfter(max) ? key.date() : max;
+            currencies.add(key.currencyName());
+        }
+        for (CurrencyRates rate : rates) {
+            if (rate.getDate() == null || rate.getCurrency() == null) {
+                continue;
+            }
+            min = rate.getDate().isBefore(min) ? rate.getDate() : min;
+            max = rate.getDate().isAfter(max) ? rate.getDate() : max;
+            currencies.add(rate.getCurrency().getCurrencyName());
+        }
+        if (max.isBefore(min)) {
+            min = max = LocalDate.EPOCH;
         }
-        logger.info("Saved {} new currency rates out of {}", savedCount, rates.size());
+        return RateCoverage.forRange(min, max, currencies);
     }
 }
@@ -0,0 +1,234 @@
+package com.crewmeister.challenge.service.impl;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.constants.Constants;
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.service.RatesExportService;
+import com.crewmeister.challenge.util.CompactRateTable;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Materializes the full rate table once per import into a CSV file and a gzip-compressed copy.
+ * Requests are then served straight from these files, so an export costs no database access or serialization.
+ * Each materialization writes new files and swaps them in atomically. The previous files are only deleted once
+ * they have been retired for {@code rates.export.retention-millis}, because a download may have resolved them just
+ * before the swap and only open them afterwards, when Tomcat starts sendfile or the controller opens its channel.
+ * Every instance writes into its own subdirectory of {@code rates.export.dir} and only ever deletes its own files,
+ * so instances and test contexts sharing the directory never remove an export another one is serving.
+ */
+@Service
+public class RatesExportServiceImpl implements RatesExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatesExportServiceImpl.class);
+
+    private static final String FILE_PREFIX = "exchange_rates-";
+
+    private final CompactRateStore compactRateStore;
+    private final Path exportDir;
+    private final long retentionMillis;
+    /** Subdirectory of this instance, created with the first export. */
+    private Path instanceDir;
+    private final AtomicReference<Exports> current = new AtomicReference<>();
+    private final Deque<Retired> retired = new ArrayDeque<>();
+    private long generation;
+
+    private record Exports(ExportFile csv, ExportFile gzip) { }
+
+    private record Retired(Exports exports, long retiredAtMillis) { }
+
+    @Autowired
+    public RatesExportServiceImpl(CompactRateStore compactRateStore,
+                                  @Value("${rates.export.dir:${java.io.tmpdir}/crewmeister-export}") Path exportDir,
+                                  @Value("${rates.export.retention-millis:300000}") long retentionMillis) {
+        this.compactRateStore = compactRateStore;
+        this.exportDir = exportDir;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(CompactRateStore.LISTENER_ORDER + 10)
+    public void onApplicationReady() {
+        materializeQuietly();
+    }
+
+    @EventListener
+    @Order(CompactRateStore.LISTENER_ORDER + 10)
+    public void onRatesImported(RatesImportedEvent event) {
+        materializeQuietly();
+    }
+
+    /**
+     * Writes the export from the current {@link CompactRateStore} table.
+     *
+     * @throws UncheckedIOException if the files cannot be written
+     */
+    @Override
+    public synchronized void materialize() {
+        CompactRateTable table = compactRateStore.current();
+        String stamp = Long.toString(System.currentTimeMillis(), 36) + "-" + generation++;
+        try {
+            if (instanceDir == null) {
+                Files.createDirectories(exportDir);
+                instanceDir = Files.createTempDirectory(exportDir, "instance-");
+            }
+            Path csvPath = instanceDir.resolve(FILE_PREFIX + stamp + ".csv");
+            Path gzipPath = instanceDir.resolve(FILE_PREFIX + stamp + ".csv.gz");
+            MessageDigest csvDigest = sha256();
+            MessageDigest gzipDigest = sha256();
+            try (OutputStream csvOut = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(csvPath)), csvDigest);
+                 OutputStream gzipOut = new GZIPOutputStream(new DigestOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(gzipPath)), gzipDigest))) {
+                writeCsv(table, csvOut, gzipOut);
+            }
+            Exports exports = new Exports(
+                    new ExportFile(csvPath, Files.size(csvPath), etag(csvDigest)),
+                    new ExportFile(gzipPath, Files.size(gzipPath), etag(gzipDigest)));
+            Exports previous = current.getAndSet(exports);
+            if (previous != null) {
+                retired.addLast(new Retired(previous, System.currentTimeMillis()));
+            }
+            deleteRetired();
+            logger.info("Materialized rate export {} ({} bytes, {} bytes gzipped)",
+                    csvPath, exports.csv().length(), exports.gzip().length());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to materialize rate export", e);
+        }
+    }
+
+    /**
+     * Deletes the files of exports retired longer than the retention period ago.
+     * Files that cannot be deleted yet, e.g. because a platform refuses to delete open files, are retried later.
+     */
+    @Scheduled(fixedDelayString = "${rates.export.retention-millis:300000}")
+    public synchronized void deleteRetired() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        while (!retired.isEmpty() && retired.peekFirst().retiredAtMillis() <= cutoff) {
+            Exports exports = retired.peekFirst().exports();
+            try {
+                Files.deleteIfExists(exports.csv().path());
+                Files.deleteIfExists(exports.gzip().path());
+                retired.removeFirst();
+            } catch (IOException e) {
+                logger.warn("Could not delete retired export {}: {}", exports.csv().path(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Optional<ExportFile> currentExport(boolean gzip) {
+        Exports exports = current.get();
+        if (exports == null) {
+            return Optional.empty();
+        }
+        return Optional.of(gzip ? exports.gzip() : exports.csv());
+    }
+
+    /**
+     * Writes the {@code exchange_rates.csv} layout: a {@code date,AUD,CAD,...} header and one {@code M/d/yyyy}
+     * row per date that has at least one rate, with blank cells for missing rates.
+     */
+    private static void writeCsv(CompactRateTable table, OutputStream... outs) throws IOException {
+        List<String> currencies = table.currencies();
+        write("date" + (currencies.isEmpty() ? "" : Constants.REGEX + String.join(Constants.REGEX, currencies)) + "\n", outs);
+        if (table.firstDate() == null) {
+            return;
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Constants.M_D_YYYY);
+        StringBuilder line = new StringBuilder();
+        for (LocalDate date = table.firstDate(); !date.isAfter(table.lastDate()); date = date.plusDays(1)) {
+            line.setLength(0);
+            line.append(date.format(formatter));
+            boolean hasRate = false;
+            for (String currency : currencies) {
+                line.append(Constants.REGEX);
+                OptionalDouble rate = table.find(date, currency);
+                if (rate.isPresent()) {
+                    line.append(BigDecimal.valueOf(rate.getAsDouble()).stripTrailingZeros().toPlainString());
+                    hasRate = true;
+                }
+            }
+            if (hasRate) {
+                write(line.append('\n').toString(), outs);
+            }
+        }
+    }
+
+    private static void write(String text, OutputStream... outs) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        for (OutputStream out : outs) {
+            out.write(bytes);
+        }
+    }
+
+    private void materializeQuietly() {
+        try {
+            materialize();
+        } catch (RuntimeException e) {
+            // The export is derived data; a failure here must not fail the import that triggered it
+            logger.error("Failed to materialize rate export", e);
+        }
+    }
+
+    /**
+     * Deletes the files of this instance on shutdown.
+     */
+    @PreDestroy
+    synchronized void deleteInstanceFiles() {
+        if (instanceDir == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(instanceDir)) {
+            for (Path path : files) {
+                Files.deleteIfExists(path);
+            }
+            Files.deleteIfExists(instanceDir);
+        } catch (IOException e) {
+            logger.warn("Could not remove export files from {}: {}", instanceDir, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String etag(MessageDigest digest) {
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+}
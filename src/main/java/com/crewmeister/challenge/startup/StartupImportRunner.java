@@ -0,0 +1,35 @@
+package com.crewmeister.challenge.startup;
+
+import com.crewmeister.challenge.cluster.ImportCoordinator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports the rates file on startup, unless another instance is importing already.
+ * Runners complete before the application reports readiness, so no traffic is accepted before the data is loaded.
+ * Instances that start against an already populated database can skip it with {@code rates.import.on-startup=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "rates.import.on-startup", havingValue = "true", matchIfMissing = true)
+@Order(StartupImportRunner.ORDER)
+public class StartupImportRunner implements ApplicationRunner {
+
+    /** Order of this runner; runners that need the imported data must use a higher value. */
+    public static final int ORDER = 0;
+
+    private final ImportCoordinator importCoordinator;
+
+    @Autowired
+    public StartupImportRunner(ImportCoordinator importCoordinator) {
+        this.importCoordinator = importCoordinator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        importCoordinator.runImport();
+    }
+}
@@ -0,0 +1,134 @@
+package com.crewmeister.challenge.startup;
+
+import com.crewmeister.challenge.dto.CurrencyDTO;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.mapper.CurrencyMapper;
+import com.crewmeister.challenge.mapper.CurrencyRatesMapper;
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Warms up the application after the startup import and before readiness is reported.
+ * Rates of the most recent days are loaded into the read caches, then a synthetic request mix is replayed
+ * through the service, the mappers and Jackson until JIT compilation settles or the time budget is spent.
+ */
+@Component
+@Order(StartupImportRunner.ORDER + 10)
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final double WARMUP_AMOUNT = 100.0;
+
+    private final CurrencyRatesService currencyRatesService;
+    private final CurrencyRateRepository currencyRateRepository;
+    private final ObjectMapper objectMapper;
+    private final int days;
+    private final long timeoutMillis;
+    private final int maxRounds;
+    private final long compileThresholdMillis;
+    private final int stableRounds;
+
+    @Autowired
+    public WarmupRunner(CurrencyRatesService currencyRatesService,
+                        CurrencyRateRepository currencyRateRepository,
+                        ObjectMapper objectMapper,
+                        @Value("${warmup.days:30}") int days,
+                        @Value("${warmup.timeout-millis:30000}") long timeoutMillis,
+                        @Value("${warmup.max-rounds:200}") int maxRounds,
+                        @Value("${warmup.compile-threshold-millis:5}") long compileThresholdMillis,
+                        @Value("${warmup.stable-rounds:3}") int stableRounds) {
+        this.currencyRatesService = currencyRatesService;
+        this.currencyRateRepository = currencyRateRepository;
+        this.objectMapper = objectMapper;
+        this.days = days;
+        this.timeoutMillis = timeoutMillis;
+        this.maxRounds = maxRounds;
+        this.compileThresholdMillis = compileThresholdMillis;
+        this.stableRounds = stableRounds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws JsonProcessingException {
+        long start = System.nanoTime();
+        List<LocalDate> dates = currencyRateRepository.findRecentDates(PageRequest.of(0, days));
+        List<String> currencies = currencyRatesService.getAllCurrencies().stream()
+                .map(Currency::getCurrencyName)
+                .toList();
+        if (dates.isEmpty() || currencies.isEmpty()) {
+            logger.info("Skipping warmup, no rates loaded");
+            return;
+        }
+
+        // Loading each date once fills the query and entity caches for the dates most requests ask for
+        for (LocalDate date : dates) {
+            currencyRatesService.getCurrencyRatesByDate(date);
+        }
+
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean trackCompilation = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long lastCompileMillis = trackCompilation ? compiler.getTotalCompilationTime() : 0;
+        long deadline = start + timeoutMillis * 1_000_000;
+        int rounds = 0;
+        int stable = 0;
+        while (rounds < maxRounds && System.nanoTime() < deadline && stable < stableRounds) {
+            replay(dates, currencies);
+            rounds++;
+            if (trackCompilation) {
+                long compileMillis = compiler.getTotalCompilationTime();
+                stable = compileMillis - lastCompileMillis <= compileThresholdMillis ? stable + 1 : 0;
+                lastCompileMillis = compileMillis;
+            }
+        }
+        logger.info("Warmup finished after {} rounds over {} dates in {} ms ({})", rounds, dates.size(),
+                (System.nanoTime() - start) / 1_000_000,
+                stable >= stableRounds ? "compilation settled" : "round or time limit reached");
+    }
+
+    /**
+     * Replays one pass of the request mix served by the controllers, including mapping and serialization.
+     */
+    void replay(List<LocalDate> dates, List<String> currencies) throws JsonProcessingException {
+        List<CurrencyDTO> currencyDtos = CurrencyMapper.INSTANCE.toDtoList(currencyRatesService.getAllCurrencies());
+        objectMapper.writeValueAsBytes(currencyDtos);
+        Page<CurrencyRatesDTO> page = currencyRatesService.getAllCurrencyRates(PageRequest.of(0, 20))
+                .map(CurrencyRatesMapper.INSTANCE::toDto);
+        objectMapper.writeValueAsBytes(page.getContent());
+
+        for (LocalDate date : dates) {
+            List<CurrencyRates> rates = currencyRatesService.getCurrencyRatesByDate(date);
+            objectMapper.writeValueAsBytes(CurrencyRatesMapper.INSTANCE.toDtoList(rates));
+            for (String currency : currencies) {
+                try {
+                    objectMapper.writeValueAsBytes(currencyRatesService.convertToEur(currency, WARMUP_AMOUNT, date));
+                    CurrencyRates rate = currencyRatesService.getCurrencyRateByDateAndCurrency(date, currency);
+                    objectMapper.writeValueAsBytes(CurrencyRatesMapper.INSTANCE.toDto(rate));
+                } catch (NoSuchElementException e) {
+                    // Not every currency has a rate on every date; the miss path is worth warming as well
+                }
+            }
+        }
+    }
+}
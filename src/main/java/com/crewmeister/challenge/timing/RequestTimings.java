@@ -0,0 +1,137 @@
+package com.crewmeister.challenge.timing;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates the time a request spends in each {@link Phase}.
+ * One instance is bound to the request thread by {@link ServerTimingFilter}; recording is a few array updates,
+ * and recording outside a timed request is a no-op.
+ */
+public final class RequestTimings {
+
+    /**
+     * Phases reported in the {@code Server-Timing} header.
+     */
+    public enum Phase {
+        /** JDBC statement execution, including statements issued by lazy loading. */
+        DB("db"),
+        /** Entity to DTO mapping. */
+        MAPPING("map"),
+        /** JSON serialization of the response body. */
+        SERIALIZATION("ser");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Binds new timings to the current thread.
+     */
+    public static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * @return the timings of the request running on this thread, or {@code null} outside a timed request
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Unbinds the timings from the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds time spent in a phase to the current request, if any.
+     */
+    public static void record(Phase phase, long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(phase, elapsedNanos);
+        }
+    }
+
+    /**
+     * Runs the action and adds its duration to the phase of the current request.
+     */
+    public static <T> T time(Phase phase, Supplier<T> action) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timings.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void add(Phase phase, long elapsedNanos) {
+        nanos[phase.ordinal()] += elapsedNanos;
+        counts[phase.ordinal()]++;
+    }
+
+    public long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public int count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * @return nanoseconds since the request started
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Formats the recorded phases and the elapsed time so far as a {@code Server-Timing} header value,
+     * e.g. {@code db;dur=1.52;desc="2 statements", map;dur=0.31, ser;dur=0.40, app;dur=2.75}.
+     */
+    public String toHeaderValue() {
+        StringBuilder value = new StringBuilder(96);
+        for (Phase phase : PHASES) {
+            if (counts[phase.ordinal()] == 0) {
+                continue;
+            }
+            appendMetric(value, phase.metricName(), nanos[phase.ordinal()]);
+            if (phase == Phase.DB) {
+                value.append(";desc=\"").append(counts[phase.ordinal()]).append(" statements\"");
+            }
+            value.append(", ");
+        }
+        appendMetric(value, "app", elapsedNanos());
+        return value.toString();
+    }
+
+    private static void appendMetric(StringBuilder value, String name, long elapsedNanos) {
+        value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.2f", elapsedNanos / 1_000_000.0));
+    }
+}
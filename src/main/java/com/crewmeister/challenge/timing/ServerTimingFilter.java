@@ -0,0 +1,81 @@
+package com.crewmeister.challenge.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the phases of every request and reports them in a {@code Server-Timing} response header.
+ * JSON responses get the header from {@link TimingJacksonHttpMessageConverter}, which also covers serialization;
+ * other responses get it here if they are not committed yet. With {@code server-timing.histograms.enabled}
+ * every phase is also recorded in a percentile histogram per route.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final String METRIC = "http.server.requests.phase";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean histograms;
+
+    @Autowired
+    public ServerTimingFilter(MeterRegistry meterRegistry,
+                              @Value("${server-timing.histograms.enabled:false}") boolean histograms) {
+        this.meterRegistry = meterRegistry;
+        this.histograms = histograms;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin();
+        try {
+            chain.doFilter(request, response);
+            if (!response.isCommitted() && !response.containsHeader(HEADER)) {
+                response.setHeader(HEADER, timings.toHeaderValue());
+            }
+        } finally {
+            RequestTimings.end();
+            if (histograms) {
+                record(request, timings);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestTimings timings) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNKNOWN";
+        for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+            if (timings.count(phase) > 0) {
+                timer(route, phase.metricName()).record(timings.nanos(phase), TimeUnit.NANOSECONDS);
+            }
+        }
+        timer(route, "app").record(timings.elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String route, String phase) {
+        return Timer.builder(METRIC)
+                .tag("uri", route)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
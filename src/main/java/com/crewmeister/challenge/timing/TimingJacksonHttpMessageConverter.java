@@ -0,0 +1,57 @@
+package com.crewmeister.challenge.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that times serialization for the {@code Server-Timing} header.
+ * Inside a timed request the body is serialized into a buffer first, so the header, including the
+ * serialization time, can still be added before the response is committed. The buffer also provides
+ * the {@code Content-Length}. Outside a timed request it behaves exactly like its superclass.
+ */
+public class TimingJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimingJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        super.writeInternal(object, type, new BufferedOutputMessage(outputMessage.getHeaders(), buffer));
+        timings.add(RequestTimings.Phase.SERIALIZATION, System.nanoTime() - start);
+
+        HttpHeaders headers = outputMessage.getHeaders();
+        headers.set(ServerTimingFilter.HEADER, timings.toHeaderValue());
+        headers.setContentLength(buffer.size());
+        buffer.writeTo(outputMessage.getBody());
+    }
+
+    private record BufferedOutputMessage(HttpHeaders headers, OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.crewmeister.challenge.timing;
+
+import org.hibernate.engine.spi.SessionEventListener;
+
+/**
+ * Feeds JDBC statement execution time into the {@link RequestTimings} of the current request.
+ * Registered for every session through {@code hibernate.session.events.auto}; Hibernate creates one instance per session,
+ * and a session is only used by one thread at a time.
+ */
+public class TimingSessionEventListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.record(RequestTimings.Phase.DB, System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.record(RequestTimings.Phase.DB, System.nanoTime() - batchStart);
+    }
+}
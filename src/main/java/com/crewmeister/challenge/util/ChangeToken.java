@@ -0,0 +1,39 @@
+package com.crewmeister.challenge.util;
+
+/**
+ * Position in the rate change feed: the version and id of the last rate a client has seen.
+ * Serialized as {@code version:id}, or as just {@code version} once that whole version has been read.
+ *
+ * @param version import version
+ * @param id      rate id within that version, {@link Long#MAX_VALUE} if the whole version has been read
+ */
+public record ChangeToken(long version, long id) {
+
+    /** Position before any rate. */
+    public static final ChangeToken START = new ChangeToken(0, Long.MAX_VALUE);
+
+    /**
+     * Parses a token.
+     *
+     * @param token the serialized token
+     * @return the parsed position
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ChangeToken parse(String token) {
+        try {
+            int separator = token.indexOf(':');
+            if (separator < 0) {
+                return new ChangeToken(Long.parseLong(token.trim()), Long.MAX_VALUE);
+            }
+            return new ChangeToken(Long.parseLong(token.substring(0, separator).trim()),
+                    Long.parseLong(token.substring(separator + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid change token '" + token + "'", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return id == Long.MAX_VALUE ? Long.toString(version) : version + ":" + id;
+    }
+}
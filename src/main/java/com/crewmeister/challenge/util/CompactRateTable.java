@@ -0,0 +1,388 @@
+package com.crewmeister.challenge.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Immutable, compact store of exchange rates encoded as fixed-point integers.
+ * Each currency gets a decimal scale matching the highest precision observed for it (e.g. 2 for JPY, 5 for GBP)
+ * and one primitive column indexed by day offset. Columns are {@code int[]} when all scaled values fit,
+ * {@code long[]} otherwise, so decades of daily rates for hundreds of currencies take a few megabytes.
+ *
+ * <p>Decoding divides the scaled integer by the exact power of ten. The builder only accepts a scale when that
+ * division reproduces the added double, and keeps every scaled value within {@link #MAX_EXACT_UNSCALED} so the
+ * division stays exact after a currency's values are widened to its common scale. A currency with a rate that
+ * has no such scale is stored as raw double bits instead, so every added rate is kept exactly.
+ */
+public final class CompactRateTable {
+
+    private static final int MAGIC = 0x43525431; // "CRT1"
+    private static final int MAX_SCALE = 18;
+    private static final int MISSING_INT = Integer.MIN_VALUE;
+    private static final long MISSING_LONG = Long.MIN_VALUE;
+    /** Scale of a column holding {@link Double#doubleToLongBits} of the rates instead of scaled integers. */
+    private static final int RAW_SCALE = -1;
+    /** A NaN payload {@link Double#doubleToLongBits} never returns, marking a missing rate in a raw column. */
+    private static final long MISSING_BITS = 0x7FF0_0000_0000_0BADL;
+
+    /**
+     * Largest scaled value a double holds exactly. Dividing such a value by an exact power of ten is correctly
+     * rounded, so it decodes to the double nearest the decimal it encodes.
+     */
+    static final long MAX_EXACT_UNSCALED = 1L << 53;
+
+    private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+
+    static {
+        double power = 1;
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private final long firstEpochDay;
+    private final int dayCount;
+    private final String[] currencies;
+    private final Map<String, Integer> currencyIndex;
+    private final int[] scales;
+    private final int[][] intColumns;
+    private final long[][] longColumns;
+
+    private CompactRateTable(long firstEpochDay, int dayCount, String[] currencies, int[] scales,
+                             int[][] intColumns, long[][] longColumns) {
+        this.firstEpochDay = firstEpochDay;
+        this.dayCount = dayCount;
+        this.currencies = currencies;
+        this.scales = scales;
+        this.intColumns = intColumns;
+        this.longColumns = longColumns;
+        this.currencyIndex = new HashMap<>();
+        for (int i = 0; i < currencies.length; i++) {
+            currencyIndex.put(currencies[i], i);
+        }
+    }
+
+    /**
+     * @return a table without any rates
+     */
+    public static CompactRateTable empty() {
+        return new Builder().build();
+    }
+
+    /**
+     * Looks up a rate.
+     *
+     * @param date     the rate date
+     * @param currency the currency name
+     * @return the rate, or empty if none is stored for that date and currency
+     */
+    public OptionalDouble find(LocalDate date, String currency) {
+        Integer index = currencyIndex.get(currency);
+        long offset = date.toEpochDay() - firstEpochDay;
+        if (index == null || offset < 0 || offset >= dayCount) {
+            return OptionalDouble.empty();
+        }
+        int day = (int) offset;
+        if (intColumns[index] != null) {
+            int value = intColumns[index][day];
+            return value == MISSING_INT ? OptionalDouble.empty() : OptionalDouble.of(value / POWERS_OF_TEN[scales[index]]);
+        }
+        long value = longColumns[index][day];
+        if (scales[index] == RAW_SCALE) {
+            return value == MISSING_BITS ? OptionalDouble.empty() : OptionalDouble.of(Double.longBitsToDouble(value));
+        }
+        return value == MISSING_LONG ? OptionalDouble.empty() : OptionalDouble.of(value / POWERS_OF_TEN[scales[index]]);
+    }
+
+    /**
+     * @return the currency names, in column order
+     */
+    public List<String> currencies() {
+        return List.of(currencies);
+    }
+
+    /**
+     * @param currency the currency name
+     * @return the number of decimals used to encode the currency, or -1 if it is unknown or stored as raw doubles
+     */
+    public int scale(String currency) {
+        Integer index = currencyIndex.get(currency);
+        return index == null ? -1 : scales[index];
+    }
+
+    /**
+     * @return the first date covered, or {@code null} for an empty table
+     */
+    public LocalDate firstDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    /**
+     * @return the last date covered, or {@code null} for an empty table
+     */
+    public LocalDate lastDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(firstEpochDay + dayCount - 1);
+    }
+
+    /**
+     * @return approximate heap size of the rate columns in bytes
+     */
+    public long columnBytes() {
+        long bytes = 0;
+        for (int i = 0; i < currencies.length; i++) {
+            bytes += intColumns[i] != null ? 4L * dayCount : 8L * dayCount;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the table in its persisted form: per currency, each day is stored as the zigzag varint
+     * of the delta to the previous present value plus one, with zero marking a missing rate.
+     * Consecutive daily rates differ little, so most days take one or two bytes. Raw columns are written
+     * the same way with the double bits as values.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeLong(firstEpochDay);
+        data.writeInt(dayCount);
+        data.writeInt(currencies.length);
+        for (int i = 0; i < currencies.length; i++) {
+            data.writeUTF(currencies[i]);
+            data.writeByte(scales[i]);
+            long previous = 0;
+            long missing = scales[i] == RAW_SCALE ? MISSING_BITS : MISSING_LONG;
+            for (int day = 0; day < dayCount; day++) {
+                long value = intColumns[i] != null
+                        ? (intColumns[i][day] == MISSING_INT ? MISSING_LONG : intColumns[i][day])
+                        : longColumns[i][day];
+                if (value == missing) {
+                    writeVarLong(data, 0);
+                } else {
+                    long delta = value - previous;
+                    writeVarLong(data, ((delta << 1) ^ (delta >> 63)) + 1);
+                    previous = value;
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a table written by {@link #writeTo(OutputStream)}.
+     *
+     * @throws IOException if the stream does not contain a compact rate table
+     */
+    public static CompactRateTable readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a compact rate table");
+        }
+        long firstEpochDay = data.readLong();
+        int dayCount = data.readInt();
+        int currencyCount = data.readInt();
+        String[] currencies = new String[currencyCount];
+        int[] scales = new int[currencyCount];
+        long[][] values = new long[currencyCount][];
+        for (int i = 0; i < currencyCount; i++) {
+            currencies[i] = data.readUTF();
+            scales[i] = data.readByte();
+            values[i] = new long[dayCount];
+            long previous = 0;
+            for (int day = 0; day < dayCount; day++) {
+                long encoded = readVarLong(data);
+                if (encoded == 0) {
+                    values[i][day] = scales[i] == RAW_SCALE ? MISSING_BITS : MISSING_LONG;
+                } else {
+                    long zigzag = encoded - 1;
+                    previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                    values[i][day] = previous;
+                }
+            }
+        }
+        return pack(firstEpochDay, dayCount, currencies, scales, values);
+    }
+
+    private static CompactRateTable pack(long firstEpochDay, int dayCount, String[] currencies, int[] scales,
+                                         long[][] values) {
+        int[][] intColumns = new int[currencies.length][];
+        long[][] longColumns = new long[currencies.length][];
+        for (int i = 0; i < currencies.length; i++) {
+            if (scales[i] != RAW_SCALE && fitsInt(values[i])) {
+                intColumns[i] = new int[dayCount];
+                for (int day = 0; day < dayCount; day++) {
+                    intColumns[i][day] = values[i][day] == MISSING_LONG ? MISSING_INT : (int) values[i][day];
+                }
+            } else {
+                longColumns[i] = values[i];
+            }
+        }
+        return new CompactRateTable(firstEpochDay, dayCount, currencies, scales, intColumns, longColumns);
+    }
+
+    private static boolean fitsInt(long[] column) {
+        for (long value : column) {
+            if (value != MISSING_LONG && (value <= MISSING_INT || value > Integer.MAX_VALUE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Collects rates and picks the per-currency scale from the observed precision.
+     * Rates are kept in growable primitive columns per currency, so adding one allocates nothing in the common case.
+     * Any double is accepted: a currency whose rates cannot all be encoded exactly at one scale becomes a raw column.
+     * Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final Map<String, PendingColumn> columns = new LinkedHashMap<>();
+        private long minEpochDay = Long.MAX_VALUE;
+        private long maxEpochDay = Long.MIN_VALUE;
+
+        /**
+         * Adds a rate. A later rate for the same date and currency replaces an earlier one.
+         */
+        public Builder add(LocalDate date, String currency, double rate) {
+            int scale = Double.isFinite(rate) ? scaleOf(rate) : RAW_SCALE;
+            long value = scale == RAW_SCALE ? Double.doubleToLongBits(rate) : Math.round(rate * POWERS_OF_TEN[scale]);
+            long epochDay = date.toEpochDay();
+            columns.computeIfAbsent(currency, c -> new PendingColumn()).add(epochDay, value, scale);
+            minEpochDay = Math.min(minEpochDay, epochDay);
+            maxEpochDay = Math.max(maxEpochDay, epochDay);
+            return this;
+        }
+
+        /**
+         * Builds the table. A currency whose rates would exceed {@link #MAX_EXACT_UNSCALED} at their common scale,
+         * and would no longer decode exactly, is stored as a raw column.
+         */
+        public CompactRateTable build() {
+            if (columns.isEmpty()) {
+                return new CompactRateTable(0, 0, new String[0], new int[0], new int[0][], new long[0][]);
+            }
+            int dayCount = Math.toIntExact(maxEpochDay - minEpochDay + 1);
+            String[] currencies = columns.keySet().toArray(String[]::new);
+            int[] scales = new int[currencies.length];
+            long[][] values = new long[currencies.length][];
+            for (int i = 0; i < currencies.length; i++) {
+                PendingColumn column = columns.get(currencies[i]);
+                values[i] = new long[dayCount];
+                if (column.widensExactly()) {
+                    scales[i] = column.maxScale;
+                    Arrays.fill(values[i], MISSING_LONG);
+                    for (int j = 0; j < column.size; j++) {
+                        long factor = (long) POWERS_OF_TEN[scales[i] - column.scales[j]];
+                        values[i][(int) (column.epochDays[j] - minEpochDay)] = column.unscaled[j] * factor;
+                    }
+                } else {
+                    scales[i] = RAW_SCALE;
+                    Arrays.fill(values[i], MISSING_BITS);
+                    for (int j = 0; j < column.size; j++) {
+                        values[i][(int) (column.epochDays[j] - minEpochDay)] = Double.doubleToLongBits(column.rate(j));
+                    }
+                }
+            }
+            return pack(minEpochDay, dayCount, currencies, scales, values);
+        }
+
+        /**
+         * @return the smallest scale whose scaled value decodes back to exactly {@code rate}, or -1 if there is none
+         */
+        private static int scaleOf(double rate) {
+            for (int scale = 0; scale <= MAX_SCALE; scale++) {
+                double scaled = rate * POWERS_OF_TEN[scale];
+                if (Math.abs(scaled) > MAX_EXACT_UNSCALED) {
+                    return -1;
+                }
+                if (Math.round(scaled) / POWERS_OF_TEN[scale] == rate) {
+                    return scale;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Rates added for one currency, in insertion order, together with the scale each was observed at.
+     * Rates without an exact scale are kept as double bits with scale {@link #RAW_SCALE}.
+     */
+    private static final class PendingColumn {
+
+        private long[] epochDays = new long[64];
+        private long[] unscaled = new long[64];
+        private byte[] scales = new byte[64];
+        private int size;
+        private int maxScale;
+        private boolean raw;
+
+        void add(long epochDay, long value, int scale) {
+            if (size == epochDays.length) {
+                int capacity = size * 2;
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                unscaled = Arrays.copyOf(unscaled, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+            }
+            epochDays[size] = epochDay;
+            unscaled[size] = value;
+            scales[size] = (byte) scale;
+            size++;
+            maxScale = Math.max(maxScale, scale);
+            raw |= scale == RAW_SCALE;
+        }
+
+        /**
+         * @return whether every rate can be widened to the common scale and still decode exactly
+         */
+        boolean widensExactly() {
+            if (raw) {
+                return false;
+            }
+            for (int j = 0; j < size; j++) {
+                if (Math.abs(unscaled[j]) > MAX_EXACT_UNSCALED / (long) POWERS_OF_TEN[maxScale - scales[j]]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the j-th added rate; scaled values decode exactly at the scale they were added with
+         */
+        double rate(int j) {
+            return scales[j] == RAW_SCALE ? Double.longBitsToDouble(unscaled[j]) : unscaled[j] / POWERS_OF_TEN[scales[j]];
+        }
+    }
+}
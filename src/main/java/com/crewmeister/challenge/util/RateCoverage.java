@@ -0,0 +1,60 @@
+package com.crewmeister.challenge.util;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of (date, currency) pairs used to filter duplicates during an import.
+ */
+public interface RateCoverage {
+
+    /**
+     * Marks the pair as covered.
+     *
+     * @return {@code true} if the pair was not covered before, {@code false} if it already was
+     */
+    boolean add(LocalDate date, String currency);
+
+    /**
+     * @return {@code true} if the pair has been added
+     */
+    boolean contains(LocalDate date, String currency);
+
+    /**
+     * Creates an empty coverage for pairs in {@code [from, to]} and the given currencies.
+     * A {@link RateCoverageBitmap} is used while the range is small enough to be addressed densely;
+     * sparse ranges, for example a single outlier date decades away, fall back to a hash set.
+     *
+     * @param from       first date that can be tracked
+     * @param to         last date that can be tracked (inclusive)
+     * @param currencies currency names that can be tracked
+     */
+    static RateCoverage forRange(LocalDate from, LocalDate to, Collection<String> currencies) {
+        if (RateCoverageBitmap.fits(from, to, currencies.size())) {
+            return new RateCoverageBitmap(from, to, currencies);
+        }
+        return new HashRateCoverage();
+    }
+
+    /**
+     * Coverage backed by a hash set, for ranges too large for a bitmap. Accepts any date and currency.
+     */
+    final class HashRateCoverage implements RateCoverage {
+
+        private final Set<Key> keys = new HashSet<>();
+
+        @Override
+        public boolean add(LocalDate date, String currency) {
+            return keys.add(new Key(date.toEpochDay(), currency));
+        }
+
+        @Override
+        public boolean contains(LocalDate date, String currency) {
+            return keys.contains(new Key(date.toEpochDay(), currency));
+        }
+
+        private record Key(long epochDay, String currency) { }
+    }
+}
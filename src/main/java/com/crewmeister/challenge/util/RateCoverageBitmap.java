@@ -0,0 +1,97 @@
+package com.crewmeister.challenge.util;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact in-memory record of which (date, currency) pairs are known.
+ * Each pair maps to a single bit at index {@code dayOffset * currencyCount + currencyIndex},
+ * so checking or marking a pair costs a map lookup and a bit operation instead of a database query.
+ */
+public final class RateCoverageBitmap implements RateCoverage {
+
+    /** Largest bitmap created by {@link RateCoverage#forRange}, 32 MB. */
+    static final long MAX_BITS = 1L << 28;
+
+    private final long firstEpochDay;
+    private final int dayCount;
+    private final Map<String, Integer> currencyIndex;
+    private final long[] words;
+
+    /**
+     * Creates an empty bitmap covering every day in {@code [from, to]} for the given currencies.
+     *
+     * @param from       first date that can be tracked
+     * @param to         last date that can be tracked (inclusive)
+     * @param currencies currency names that can be tracked
+     * @throws IllegalArgumentException if the range is inverted or too large to address
+     */
+    public RateCoverageBitmap(LocalDate from, LocalDate to, Collection<String> currencies) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Coverage range end " + to + " is before start " + from);
+        }
+        this.firstEpochDay = from.toEpochDay();
+        this.dayCount = Math.toIntExact(to.toEpochDay() - firstEpochDay + 1);
+        this.currencyIndex = new HashMap<>();
+        for (String currency : currencies) {
+            currencyIndex.putIfAbsent(currency, currencyIndex.size());
+        }
+        long bits = (long) dayCount * Math.max(1, currencyIndex.size());
+        this.words = new long[Math.toIntExact((bits + 63) >>> 6)];
+    }
+
+    /**
+     * @return {@code true} if a bitmap for the range and currency count stays within {@link #MAX_BITS}
+     */
+    static boolean fits(LocalDate from, LocalDate to, int currencyCount) {
+        long days = to.toEpochDay() - from.toEpochDay() + 1;
+        return days > 0 && days <= MAX_BITS / Math.max(1, currencyCount);
+    }
+
+    /**
+     * Marks the pair as covered.
+     *
+     * @param date     the rate date
+     * @param currency the currency name
+     * @return {@code true} if the pair was not covered before, {@code false} if it already was
+     * @throws IllegalArgumentException if the date or currency is outside the bitmap
+     */
+    @Override
+    public boolean add(LocalDate date, String currency) {
+        long bit = bitIndex(date, currency);
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        if ((words[word] & mask) != 0) {
+            return false;
+        }
+        words[word] |= mask;
+        return true;
+    }
+
+    /**
+     * Checks whether the pair is covered.
+     *
+     * @param date     the rate date
+     * @param currency the currency name
+     * @return {@code true} if the pair has been added
+     */
+    @Override
+    public boolean contains(LocalDate date, String currency) {
+        long bit = bitIndex(date, currency);
+        return (words[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    private long bitIndex(LocalDate date, String currency) {
+        long dayOffset = date.toEpochDay() - firstEpochDay;
+        if (dayOffset < 0 || dayOffset >= dayCount) {
+            throw new IllegalArgumentException("Date " + date + " is outside the coverage range");
+        }
+        Integer index = currencyIndex.get(currency);
+        if (index == null) {
+            throw new IllegalArgumentException("Currency '" + currency + "' is not tracked by the coverage bitmap");
+        }
+        return dayOffset * currencyIndex.size() + index;
+    }
+}
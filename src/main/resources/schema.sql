@@ -0,0 +1,36 @@
+-- Schema for the fast-start profile, where Hibernate only validates the mapping instead of generating DDL.
+-- Must be kept in line with the entities; statements are idempotent so a shared database is left untouched.
+CREATE TABLE IF NOT EXISTS currency (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    currency_name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS currency_rates (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    date DATE NOT NULL,
+    rate FLOAT(53) NOT NULL,
+    version BIGINT NOT NULL,
+    currency_id BIGINT NOT NULL REFERENCES currency(id)
+);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_date_currency ON currency_rates (date, currency_id);
+CREATE INDEX IF NOT EXISTS idx_version ON currency_rates (version, id);
+
+CREATE TABLE IF NOT EXISTS import_batch (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    started_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE,
+    rate_count INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS import_lock (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    locked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_until TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS dataset_version (
+    name VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
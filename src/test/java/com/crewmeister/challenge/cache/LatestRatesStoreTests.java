@@ -0,0 +1,96 @@
+package com.crewmeister.challenge.cache;
+
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.crewmeister.challenge.util.CompactRateTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class LatestRatesStoreTests {
+
+    private static final LocalDate FIRST = LocalDate.of(2023, 1, 2);
+    private static final LocalDate LAST = LocalDate.of(2023, 1, 3);
+
+    @Mock
+    private CompactRateStore compactRateStore;
+
+    @Mock
+    private CurrencyRatesService currencyRatesService;
+
+    private LatestRatesStore store;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        store = new LatestRatesStore(compactRateStore, currencyRatesService,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void current_withoutRates_throws() {
+        when(compactRateStore.current()).thenReturn(CompactRateTable.empty());
+
+        store.rebuild();
+
+        assertThatThrownBy(() -> store.current()).isInstanceOf(NoSuchElementException.class);
+        verifyNoInteractions(currencyRatesService);
+    }
+
+    @Test
+    void rebuild_rendersRatesOfLastDate() {
+        when(compactRateStore.current()).thenReturn(new CompactRateTable.Builder()
+                .add(FIRST, "USD", 1.05).add(LAST, "USD", 1.1).build());
+        when(currencyRatesService.getCurrencyRatesByDate(LAST)).thenReturn(List.of(rate(LAST, "USD", 1.1)));
+
+        store.onRatesImported(new RatesImportedEvent(List.of()));
+
+        LatestRates latest = store.current();
+        assertThat(latest.date()).isEqualTo(LAST);
+        assertThat(latest.rates()).containsEntry("USD", 1.1);
+        assertThat(new String(latest.body(), StandardCharsets.UTF_8))
+                .startsWith("[{\"id\":1,").contains("\"rate\":1.1", "\"currencyName\":\"USD\"");
+        assertThat(latest.etag()).startsWith("\"2023-01-03-");
+    }
+
+    @Test
+    void rebuild_changesEtagWhenRatesChange() {
+        when(compactRateStore.current()).thenReturn(new CompactRateTable.Builder().add(LAST, "USD", 1.1).build());
+        when(currencyRatesService.getCurrencyRatesByDate(LAST))
+                .thenReturn(List.of(rate(LAST, "USD", 1.1)))
+                .thenReturn(List.of(rate(LAST, "USD", 1.1), rate(LAST, "JPY", 160.5)));
+
+        store.rebuild();
+        String before = store.current().etag();
+        store.rebuild();
+
+        assertThat(store.current().etag()).isNotEqualTo(before);
+        assertThat(store.current().rates()).containsEntry("JPY", 160.5);
+    }
+
+    private static CurrencyRates rate(LocalDate date, String currencyName, double value) {
+        Currency currency = new Currency();
+        currency.setId(1L);
+        currency.setCurrencyName(currencyName);
+        CurrencyRates rates = new CurrencyRates();
+        rates.setId(1L);
+        rates.setDate(date);
+        rates.setCurrency(currency);
+        rates.setRate(value);
+        return rates;
+    }
+}
@@ -0,0 +1,77 @@
+package com.crewmeister.challenge.cluster;
+
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.repository.ImportBatchRepository;
+import com.crewmeister.challenge.segment.RateSegmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DatasetVersionTrackerTests {
+
+    private DriverManagerDataSource dataSource;
+    private final CurrencyRateRepository currencyRateRepository = mock(CurrencyRateRepository.class);
+    private final ImportBatchRepository importBatchRepository = mock(ImportBatchRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private DatasetVersionTracker leader;
+    private DatasetVersionTracker follower;
+
+    @BeforeEach
+    void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:version-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE dataset_version (name VARCHAR(64) PRIMARY KEY, "
+                + "version BIGINT NOT NULL, updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL)");
+        leader = new DatasetVersionTracker(dataSource, mock(RateSegmentStore.class), currencyRateRepository,
+                importBatchRepository, mock(ApplicationEventPublisher.class));
+        follower = new DatasetVersionTracker(dataSource, mock(RateSegmentStore.class), currencyRateRepository,
+                importBatchRepository, eventPublisher);
+        when(importBatchRepository.findLatestCompletedVersion()).thenReturn(3L);
+        leader.onApplicationStarted();
+        follower.onApplicationStarted();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    @Test
+    public void shouldPublishDatesImportedByAnotherInstance() {
+        List<LocalDate> dates = List.of(LocalDate.of(2023, 1, 2), LocalDate.of(2023, 1, 3));
+        when(importBatchRepository.findLatestCompletedVersion()).thenReturn(5L);
+        when(currencyRateRepository.findDatesByVersionBetween(3, 5)).thenReturn(dates);
+        leader.bump();
+
+        follower.poll();
+
+        ArgumentCaptor<RatesImportedEvent> event = ArgumentCaptor.forClass(RatesImportedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().insertedRates().isEmpty());
+        assertEquals(dates, List.copyOf(event.getValue().dates()));
+    }
+
+    @Test
+    public void shouldPublishNoDatesAfterCompaction() {
+        leader.bump();
+
+        follower.poll();
+        follower.poll();
+
+        ArgumentCaptor<RatesImportedEvent> event = ArgumentCaptor.forClass(RatesImportedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().dates().isEmpty());
+        verify(currencyRateRepository, never()).findDatesByVersionBetween(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,91 @@
+package com.crewmeister.challenge.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaseLockTests {
+
+    private DriverManagerDataSource dataSource;
+    private LeaseLock first;
+    private LeaseLock second;
+
+    @BeforeEach
+    void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:lease-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE import_lock (name VARCHAR(64) PRIMARY KEY, "
+                + "owner VARCHAR(255) NOT NULL, locked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, "
+                + "locked_until TIMESTAMP(6) WITH TIME ZONE NOT NULL)");
+        first = new LeaseLock(dataSource, 200);
+        second = new LeaseLock(dataSource, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.shutdown();
+        second.shutdown();
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    @Test
+    public void shouldGrantLeaseToOneInstanceOnly() {
+        assertTrue(first.tryAcquire("import"));
+        assertFalse(second.tryAcquire("import"));
+        assertTrue(first.tryAcquire("import"));
+    }
+
+    @Test
+    public void shouldLetOthersTakeOverExpiredLease() throws Exception {
+        assertTrue(first.tryAcquire("import"));
+
+        Thread.sleep(300);
+
+        assertTrue(second.tryAcquire("import"));
+        assertFalse(first.extend("import"));
+        assertTrue(second.extend("import"));
+    }
+
+    @Test
+    public void shouldReleaseLeaseAfterExclusiveRun() {
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertTrue(first.runExclusively("import", () -> {
+            ran.set(true);
+            assertFalse(second.runExclusively("import", () -> fail("ran concurrently")));
+        }));
+
+        assertTrue(ran.get());
+        assertTrue(second.tryAcquire("import"));
+    }
+
+    @Test
+    public void shouldReportLeaseLostWhenHeartbeatCannotExtendIt() {
+        assertTrue(first.runExclusively("import", () -> {
+            sleep(300);
+            assertFalse(first.isLost("import"));
+
+            new JdbcTemplate(dataSource).update("UPDATE import_lock SET owner = 'other' WHERE name = 'import'");
+            sleep(150);
+
+            assertTrue(first.isLost("import"));
+            assertFalse(second.isLost("import"));
+        }));
+        assertFalse(first.isLost("import"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.crewmeister.challenge.config;
+
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.repository.CurrencyRepository;
+import com.crewmeister.challenge.repository.ImportBatchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the fast-start profile against an empty database, so the tables come from {@code schema.sql} alone
+ * and Hibernate's {@code validate} fails the context if they drifted from the entities.
+ */
+@SpringBootTest
+@ActiveProfiles("fast")
+class FastStartContextTests {
+
+    private static final String DATABASE_URL = "jdbc:h2:mem:fast-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    static Path segmentDir;
+
+    @Autowired
+    private CurrencyRateRepository currencyRateRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private ImportBatchRepository importBatchRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> DATABASE_URL);
+        registry.add("rates.segments.dir", segmentDir::toString);
+    }
+
+    @Test
+    void schemaMatchesEntities() {
+        // Injecting the repositories creates the lazy entity manager factory, which validates the schema
+        assertThat(currencyRepository.count()).isZero();
+        assertThat(currencyRateRepository.count()).isZero();
+        assertThat(importBatchRepository.findLatestCompletedVersion()).isZero();
+    }
+}
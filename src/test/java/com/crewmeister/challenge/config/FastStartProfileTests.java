@@ -0,0 +1,42 @@
+package com.crewmeister.challenge.config;
+
+import com.crewmeister.challenge.cluster.ImportCoordinator;
+import com.crewmeister.challenge.controller.CurrencyRatesController;
+import com.crewmeister.challenge.push.RatesBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastStartProfileTests {
+
+    @Test
+    public void shouldApplySchemaIdempotently() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:schema-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+            populator.execute(dataSource);
+            jdbcTemplate.update("INSERT INTO currency (currency_name) VALUES ('USD')");
+            populator.execute(dataSource);
+
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency", Integer.class));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency_rates", Integer.class));
+        } finally {
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    public void shouldKeepScheduledBeansEager() {
+        assertTrue(LazyInitializationConfig.hasScheduledMethods(ImportCoordinator.class));
+        assertTrue(LazyInitializationConfig.hasScheduledMethods(RatesBroadcaster.class));
+        assertFalse(LazyInitializationConfig.hasScheduledMethods(CurrencyRatesController.class));
+    }
+}
@@ -0,0 +1,94 @@
+package com.crewmeister.challenge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that read-only transactions are served by the read pool and all other transactions by the write pool.
+ */
+@SpringBootTest(properties = {"warmup.enabled=false", "rates.import.on-startup=false"})
+class ReadWriteRoutingTests {
+
+    @TempDir
+    static Path segmentDir;
+
+    @DynamicPropertySource
+    static void segmentProperties(DynamicPropertyRegistry registry) {
+        registry.add("rates.segments.dir", segmentDir::toString);
+    }
+
+    @Autowired
+    private PoolProbe poolProbe;
+
+    @Autowired
+    @Qualifier(DataSourceConfig.READ_DATA_SOURCE)
+    private HikariDataSource readDataSource;
+
+    @Autowired
+    @Qualifier(DataSourceConfig.WRITE_DATA_SOURCE)
+    private HikariDataSource writeDataSource;
+
+    @Test
+    void readOnlyTransactionUsesReadPool() {
+        assertThat(poolProbe.activeConnectionsInReadOnlyTransaction(readDataSource)).isPositive();
+    }
+
+    @Test
+    void readWriteTransactionUsesWritePool() {
+        assertThat(poolProbe.activeConnectionsInReadWriteTransaction(writeDataSource)).isPositive();
+    }
+
+    @Test
+    void readPoolHandsOutReadOnlyConnections() {
+        assertThat(readDataSource.isReadOnly()).isTrue();
+        assertThat(writeDataSource.isReadOnly()).isFalse();
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+
+        @Bean
+        PoolProbe poolProbe() {
+            return new PoolProbe();
+        }
+    }
+
+    /**
+     * Runs a query inside a transaction and reports how many connections the given pool has handed out meanwhile.
+     */
+    static class PoolProbe {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Transactional(readOnly = true)
+        public int activeConnectionsInReadOnlyTransaction(HikariDataSource pool) {
+            return activeConnections(pool);
+        }
+
+        @Transactional
+        public int activeConnectionsInReadWriteTransaction(HikariDataSource pool) {
+            return activeConnections(pool);
+        }
+
+        private int activeConnections(HikariDataSource pool) {
+            entityManager.createQuery("SELECT COUNT(c) FROM Currency c").getSingleResult();
+            return pool.getHikariPoolMXBean().getActiveConnections();
+        }
+    }
+}
@@ -4,13 +4,19 @@ import static org.mockito.Mockito.*;
 import static org.assertj.core.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import com.crewmeister.challenge.dto.CurrencyDTO;
 import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.dto.DateRatesDTO;
+import com.crewmeister.challenge.dto.RateChangesDTO;
+import com.crewmeister.challenge.dto.RatesByDatesRequest;
 import com.crewmeister.challenge.model.Currency;
 import com.crewmeister.challenge.model.CurrencyRates;
 import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.crewmeister.challenge.util.ChangeToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -133,6 +139,85 @@ public class CurrencyRatesControllerTests {
         assertThat(response.getBody()).isEmpty();
     }
 
+    @Test
+    void getRateChanges_returnsPageWithNextToken() {
+        CurrencyRates first = setCurrencyRates(11L, 4L);
+        CurrencyRates second = setCurrencyRates(12L, 4L);
+        CurrencyRates third = setCurrencyRates(13L, 5L);
+        when(currencyRatesService.getRateChanges(ChangeToken.parse("3"), 3)).thenReturn(List.of(first, second, third));
+
+        ResponseEntity<RateChangesDTO> response = controller.getRateChanges("3", 2);
+
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().rates()).hasSize(2);
+        assertThat(response.getBody().nextToken()).isEqualTo("4:12");
+        assertThat(response.getBody().hasMore()).isTrue();
+    }
+
+    @Test
+    void getRateChanges_whenNoChanges_keepsToken() {
+        when(currencyRatesService.getRateChanges(ChangeToken.parse("4:12"), 101)).thenReturn(List.of());
+
+        ResponseEntity<RateChangesDTO> response = controller.getRateChanges("4:12", 100);
+
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().rates()).isEmpty();
+        assertThat(response.getBody().nextToken()).isEqualTo("4:12");
+        assertThat(response.getBody().hasMore()).isFalse();
+    }
+
+    @Test
+    void getCurrencyRatesByDates_groupsRatesByRequestedDate() {
+        LocalDate first = LocalDate.of(2023, 1, 31);
+        LocalDate second = LocalDate.of(2023, 2, 28);
+        CurrencyRates usd = setCurrencyRates(1L, 1L);
+        usd.setDate(first);
+        usd.setCurrency(setCurrency("USD"));
+        when(currencyRatesService.getCurrencyRatesByDates(Set.of(first, second), Set.of("USD")))
+                .thenReturn(List.of(usd));
+
+        ResponseEntity<List<DateRatesDTO>> response = controller.getCurrencyRatesByDates(
+                new RatesByDatesRequest(List.of(second, first, second), List.of("USD")));
+
+        assertThat(response.getBody()).extracting(DateRatesDTO::date).containsExactly(first, second);
+        assertThat(response.getBody().get(0).rates()).extracting(CurrencyRatesDTO::id).containsExactly(1L);
+        assertThat(response.getBody().get(1).rates()).isEmpty();
+    }
+
+    @Test
+    void getCurrencyRatesByDates_withoutDates_isRejected() {
+        assertThatThrownBy(() -> controller.getCurrencyRatesByDates(new RatesByDatesRequest(List.of(), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(currencyRatesService);
+    }
+
+    @Test
+    void getCurrencyRatesByDates_withNullDate_isRejected() {
+        List<LocalDate> dates = Arrays.asList(LocalDate.of(2023, 1, 31), null);
+
+        assertThatThrownBy(() -> controller.getCurrencyRatesByDates(new RatesByDatesRequest(dates, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(currencyRatesService);
+    }
+
+    @Test
+    void getCurrencyRatesByDates_withNullCurrency_isRejected() {
+        List<String> currencies = Arrays.asList("USD", null);
+
+        assertThatThrownBy(() -> controller.getCurrencyRatesByDates(
+                new RatesByDatesRequest(List.of(LocalDate.of(2023, 1, 31)), currencies)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(currencyRatesService);
+    }
+
+    CurrencyRates setCurrencyRates(Long id, long version) {
+        CurrencyRates currencyRates = new CurrencyRates();
+        currencyRates.setId(id);
+        currencyRates.setVersion(version);
+
+        return currencyRates;
+    }
+
     Currency setCurrency(String currencyName) {
         Currency currency = new Currency();
         currency.setCurrencyName(currencyName);
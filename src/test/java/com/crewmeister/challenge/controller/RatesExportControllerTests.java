@@ -0,0 +1,100 @@
+package com.crewmeister.challenge.controller;
+
+import com.crewmeister.challenge.service.RatesExportService;
+import com.crewmeister.challenge.service.RatesExportService.ExportFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class RatesExportControllerTests {
+
+    private static final String CSV = "date,AUD,CAD\n1/2/2023,1.5699,1.4506\n";
+    private static final String ETAG = "\"abc\"";
+
+    @Mock
+    private RatesExportService ratesExportService;
+
+    @InjectMocks
+    private RatesExportController controller;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        Path file = Files.writeString(tempDir.resolve("export.csv"), CSV);
+        when(ratesExportService.currentExport(false)).thenReturn(Optional.of(new ExportFile(file, CSV.length(), ETAG)));
+    }
+
+    @Test
+    void exportCsv_servesWholeFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/rates/export.csv");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportCsv(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getContentAsString(StandardCharsets.US_ASCII)).isEqualTo(CSV);
+    }
+
+    @Test
+    void exportCsv_servesRequestedRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/rates/export.csv");
+        request.addHeader("Range", "bytes=0-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportCsv(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 0-3/" + CSV.length());
+        assertThat(response.getContentAsString(StandardCharsets.US_ASCII)).isEqualTo("date");
+    }
+
+    @Test
+    void exportCsv_whenEtagMatches_returnsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/rates/export.csv");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportCsv(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    void exportCsv_whenRangeUnsatisfiable_returns416() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/rates/export.csv");
+        request.addHeader("Range", "bytes=1000-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.exportCsv(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+    }
+
+    @Test
+    void exportCsv_whenNotMaterialized_throwsNotFound() {
+        when(ratesExportService.currentExport(true)).thenReturn(Optional.empty());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/rates/export.csv.gz");
+
+        assertThatThrownBy(() -> controller.exportCsv(request, new MockHttpServletResponse()))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.crewmeister.challenge.dataset;
+
+import com.crewmeister.challenge.constants.Constants;
+import com.crewmeister.challenge.util.ChangeToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RatesDatasetGeneratorTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldWriteSameDatasetForSameSeed() throws IOException {
+        DatasetSpec spec = DatasetSpec.of(500, 20, 7);
+
+        new RatesDatasetGenerator(spec).writeCsv(tempDir.resolve("first.csv"));
+        new RatesDatasetGenerator(spec).writeCsv(tempDir.resolve("second.csv"));
+
+        assertEquals(Files.readAllLines(tempDir.resolve("first.csv")), Files.readAllLines(tempDir.resolve("second.csv")));
+    }
+
+    @Test
+    public void shouldUseExchangeRatesCsvLayout() throws IOException {
+        GeneratedDataset dataset = new RatesDatasetGenerator(DatasetSpec.of(300, 15, 1)).writeCsv(tempDir.resolve("rates.csv"));
+
+        List<String> lines = Files.readAllLines(dataset.file());
+        assertTrue(lines.get(0).startsWith("date,AUD,CAD,CHF"));
+        assertEquals(16, lines.get(0).split(Constants.REGEX).length);
+        assertEquals(dataset.dates().size() + 1, lines.size());
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Constants.M_D_YYYY);
+        String firstRow = lines.get(1);
+        assertEquals(dataset.dates().get(0), LocalDate.parse(firstRow.substring(0, firstRow.indexOf(',')), formatter));
+    }
+
+    @Test
+    public void shouldLeaveGapsOnlyWhenRequested() throws IOException {
+        GeneratedDataset withGaps = new RatesDatasetGenerator(DatasetSpec.of(1000, 30, 3))
+                .writeCsv(tempDir.resolve("gaps.csv"));
+        GeneratedDataset withoutGaps = new RatesDatasetGenerator(DatasetSpec.of(1000, 30, 3).withoutGaps())
+                .writeCsv(tempDir.resolve("full.csv"));
+
+        assertEquals(1000, withoutGaps.dates().size());
+        assertEquals(1000L * 30, withoutGaps.rateCount());
+        assertTrue(withGaps.dates().size() < 1000);
+        assertTrue(withGaps.rateCount() < (long) withGaps.dates().size() * 30);
+        assertEquals(withGaps.rateCount(), withGaps.quoted().cardinality());
+        assertEquals(withoutGaps.rateCount(), withoutGaps.quoted().cardinality());
+    }
+
+    @Test
+    public void shouldReportWhichCellsHoldARate() throws IOException {
+        GeneratedDataset dataset = new RatesDatasetGenerator(DatasetSpec.of(200, 10, 5))
+                .writeCsv(tempDir.resolve("cells.csv"));
+
+        List<String> lines = Files.readAllLines(dataset.file());
+        for (int row = 0; row < dataset.dates().size(); row++) {
+            String[] cells = lines.get(row + 1).split(",", -1);
+            for (int column = 0; column < dataset.currencies().size(); column++) {
+                assertEquals(!cells[column + 1].isEmpty(), dataset.hasRate(row, column));
+            }
+        }
+    }
+
+    @Test
+    public void shouldGenerateDistinctCodesUpToTheThreeLetterLimit() {
+        List<String> codes = new RatesDatasetGenerator(DatasetSpec.of(1, DatasetSpec.MAX_CURRENCIES, 1)).currencyCodes();
+
+        assertEquals(DatasetSpec.MAX_CURRENCIES, codes.size());
+        assertEquals(DatasetSpec.MAX_CURRENCIES, new HashSet<>(codes).size());
+        assertTrue(codes.stream().allMatch(code -> code.matches("[A-Z]{3}")));
+        assertThrows(IllegalArgumentException.class, () -> DatasetSpec.of(1, DatasetSpec.MAX_CURRENCIES + 1, 1));
+    }
+
+    @Test
+    public void shouldRecordH2RatesAsOneCompletedImport() throws SQLException {
+        String jdbcUrl = "jdbc:h2:mem:dataset-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        GeneratedDataset dataset = new RatesDatasetGenerator(DatasetSpec.of(100, 5, 2)).writeH2(jdbcUrl, "sa", "");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(jdbcUrl, "sa", ""));
+        try {
+            Long version = jdbcTemplate.queryForObject("SELECT id FROM import_batch WHERE completed_at IS NOT NULL", Long.class);
+            assertTrue(version > ChangeToken.START.version());
+            assertEquals(dataset.rateCount(), jdbcTemplate.queryForObject(
+                    "SELECT rate_count FROM import_batch WHERE id = ?", Long.class, version));
+            assertEquals(dataset.rateCount(), jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM currency_rates WHERE version = ?", Long.class, version));
+        } finally {
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+    }
+}
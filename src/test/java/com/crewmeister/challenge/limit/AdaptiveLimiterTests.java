@@ -0,0 +1,78 @@
+package com.crewmeister.challenge.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveLimiterTests {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    public void shouldRejectAboveLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.rejectedCount());
+
+        limiter.release(MILLIS);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void shouldGrowWhileLatencyStaysFlat() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 1, 100);
+
+        saturate(limiter, 20, MILLIS);
+
+        assertTrue(limiter.limit() > 10, "limit " + limiter.limit());
+        assertTrue(limiter.limit() <= 100);
+    }
+
+    @Test
+    public void shouldShrinkWhenLatencyRises() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 50, 2, 100);
+        saturate(limiter, 5, MILLIS);
+        int before = limiter.limit();
+
+        saturate(limiter, 3, 20 * MILLIS);
+
+        assertTrue(limiter.limit() < before, "limit " + limiter.limit() + " not below " + before);
+        assertTrue(limiter.limit() >= 2);
+    }
+
+    @Test
+    public void shouldNotAdaptWhileMostlyIdle() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 20, 1, 100);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(i % 2 == 0 ? MILLIS : 50 * MILLIS);
+        }
+
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    public void shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter("test", 0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter("test", 5, 6, 10));
+    }
+
+    /**
+     * Fills the limiter and completes all requests with the given latency, for a number of rounds.
+     */
+    private static void saturate(AdaptiveLimiter limiter, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+}
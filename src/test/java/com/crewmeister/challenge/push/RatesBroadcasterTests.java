@@ -0,0 +1,170 @@
+package com.crewmeister.challenge.push;
+
+import com.crewmeister.challenge.event.RatesImportedEvent;
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RatesBroadcasterTests {
+
+    @Mock
+    private CurrencyRateRepository currencyRateRepository;
+
+    private RatesBroadcaster broadcaster;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        broadcaster = new RatesBroadcaster(currencyRateRepository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                60_000, 4, 2, 50, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void onRatesImported_withoutSubscribers_doesNotQueryRates() {
+        broadcaster.onRatesImported(new RatesImportedEvent(List.of(rate(LocalDate.of(2023, 1, 2)))));
+
+        verifyNoInteractions(currencyRateRepository);
+    }
+
+    @Test
+    void onRatesImported_pushesOnlyMostRecentDates() {
+        broadcaster.subscribe();
+        when(currencyRateRepository.findByDate(any())).thenReturn(List.of());
+
+        broadcaster.onRatesImported(new RatesImportedEvent(List.of(
+                rate(LocalDate.of(2023, 1, 2)), rate(LocalDate.of(2023, 1, 3)), rate(LocalDate.of(2023, 1, 4)))));
+
+        verify(currencyRateRepository).findByDate(LocalDate.of(2023, 1, 3));
+        verify(currencyRateRepository).findByDate(LocalDate.of(2023, 1, 4));
+        verifyNoMoreInteractions(currencyRateRepository);
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void broadcast_whenOneSubscriberBlocks_stillReachesOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter blocked = new BlockingEmitter(release);
+        BlockingEmitter other = new BlockingEmitter(null);
+        broadcaster.subscribe(blocked);
+        broadcaster.subscribe(other);
+
+        broadcaster.heartbeat();
+
+        assertThat(other.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(blocked.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void evictStalled_completesEmitterOnlyAfterWriteReturns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter blocked = new BlockingEmitter(release);
+        broadcaster.subscribe(blocked);
+        broadcaster.heartbeat();
+        assertThat(blocked.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+
+        broadcaster.evictStalled();
+
+        assertThat(broadcaster.subscriberCount()).isZero();
+        assertThat(blocked.completed.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+        assertThat(blocked.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(blocked.completedDuringSend).isFalse();
+    }
+
+    @Test
+    void broadcast_withoutFreeSender_keepsSubscriberQueued() throws Exception {
+        broadcaster.shutdown();
+        broadcaster = new RatesBroadcaster(currencyRateRepository, new ObjectMapper(), 60_000, 4, 2, 5_000, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter blocked = new BlockingEmitter(release);
+        BlockingEmitter waiting = new BlockingEmitter(null);
+        broadcaster.subscribe(blocked);
+        broadcaster.heartbeat();
+        assertThat(blocked.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        broadcaster.subscribe(waiting);
+        broadcaster.heartbeat();
+
+        assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+        assertThat(waiting.completed.getCount()).isEqualTo(1);
+        release.countDown();
+        assertThat(waiting.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+    }
+
+    /**
+     * Emitter whose sends block until released, recording whether it was completed while a send was running.
+     */
+    private static final class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch sent = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean inSend;
+        private volatile boolean completedDuringSend;
+
+        BlockingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            inSend = true;
+            sending.countDown();
+            try {
+                if (release != null && !release.await(5, TimeUnit.SECONDS)) {
+                    throw new IOException("Write timed out");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                inSend = false;
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completedDuringSend |= inSend;
+            completed.countDown();
+        }
+    }
+
+    private static CurrencyRates rate(LocalDate date) {
+        Currency currency = new Currency();
+        currency.setCurrencyName("USD");
+        CurrencyRates rates = new CurrencyRates();
+        rates.setDate(date);
+        rates.setCurrency(currency);
+        rates.setRate(1.1);
+        return rates;
+    }
+}
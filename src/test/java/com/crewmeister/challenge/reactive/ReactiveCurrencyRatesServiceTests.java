@@ -0,0 +1,137 @@
+package com.crewmeister.challenge.reactive;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.dto.CurrencyDTO;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.segment.RateSegmentStore;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ReactiveCurrencyRatesServiceTests {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 1, 2);
+    private static final CurrencyDTO USD = new CurrencyDTO(1L, "USD");
+    private static final CurrencyDTO JPY = new CurrencyDTO(2L, "JPY");
+
+    @Mock
+    private ReactiveRatesRepository reactiveRatesRepository;
+
+    @Mock
+    private RateSegmentStore rateSegmentStore;
+
+    @Mock
+    private CompactRateStore compactRateStore;
+
+    @Mock
+    private CurrencyRatesService currencyRatesService;
+
+    private ReactiveCurrencyRatesService service;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        service = new ReactiveCurrencyRatesService(reactiveRatesRepository, rateSegmentStore, compactRateStore,
+                currencyRatesService);
+        when(reactiveRatesRepository.findAllCurrencies()).thenReturn(Flux.just(USD, JPY));
+        when(compactRateStore.find(any(), any())).thenReturn(OptionalDouble.empty());
+        when(rateSegmentStore.find(any(), any())).thenReturn(OptionalDouble.empty());
+    }
+
+    @Test
+    void getCurrencyRatesByDate_mergesSegmentRatesOrderedByCurrency() {
+        when(rateSegmentStore.covers(DATE)).thenReturn(true);
+        when(reactiveRatesRepository.findByDate(DATE)).thenReturn(Flux.just(new CurrencyRatesDTO(5L, DATE, 1.2, USD)));
+        when(rateSegmentStore.find(DATE)).thenReturn(List.of(
+                new RateValue(DATE, "JPY", 140.5), new RateValue(DATE, "USD", 1.1)));
+
+        List<CurrencyRatesDTO> rates = service.getCurrencyRatesByDate(DATE).collectList().block();
+
+        assertEquals(List.of(new CurrencyRatesDTO(null, DATE, 140.5, JPY), new CurrencyRatesDTO(5L, DATE, 1.2, USD)), rates);
+    }
+
+    @Test
+    void getCurrencyRates_withoutSegments_pagesTableThroughR2dbc() {
+        CurrencyRatesDTO stored = new CurrencyRatesDTO(7L, DATE, 1.3, USD);
+        when(reactiveRatesRepository.findAll(2, 2)).thenReturn(Flux.just(stored));
+        when(reactiveRatesRepository.count()).thenReturn(Mono.just(3L));
+
+        Page<CurrencyRatesDTO> page = service.getCurrencyRates(PageRequest.of(1, 2)).block();
+
+        assertEquals(List.of(stored), page.getContent());
+        assertEquals(3, page.getTotalElements());
+        verifyNoInteractions(currencyRatesService);
+    }
+
+    @Test
+    void getCurrencyRates_withSegments_pagesBothTiersLikeMvc() {
+        when(rateSegmentStore.years()).thenReturn(new TreeSet<>(Set.of(2022)));
+        CurrencyRates rate = new CurrencyRates();
+        rate.setDate(DATE);
+        rate.setRate(1.1);
+        Currency currency = new Currency();
+        currency.setCurrencyName("USD");
+        rate.setCurrency(currency);
+        when(currencyRatesService.getAllCurrencyRates(PageRequest.of(1, 2)))
+                .thenReturn(new PageImpl<>(List.of(rate), PageRequest.of(1, 2), 3));
+
+        Page<CurrencyRatesDTO> page = service.getCurrencyRates(PageRequest.of(1, 2)).block();
+
+        assertEquals(1, page.getNumberOfElements());
+        assertEquals(DATE, page.getContent().get(0).date());
+        assertEquals(3, page.getTotalElements());
+        verify(reactiveRatesRepository, never()).findAll(anyLong(), anyInt());
+    }
+
+    @Test
+    void getCurrencyRateByDateAndCurrency_fallsBackToSegments() {
+        when(reactiveRatesRepository.findByDateAndCurrency(DATE, "JPY")).thenReturn(Mono.empty());
+        when(rateSegmentStore.find(DATE, "JPY")).thenReturn(OptionalDouble.of(140.5));
+
+        CurrencyRatesDTO rate = service.getCurrencyRateByDateAndCurrency(DATE, "JPY").block();
+
+        assertEquals(new CurrencyRatesDTO(null, DATE, 140.5, JPY), rate);
+    }
+
+    @Test
+    void getCurrencyRateByDateAndCurrency_withoutRate_failsWithNoSuchElement() {
+        when(reactiveRatesRepository.findByDateAndCurrency(DATE, "XXX")).thenReturn(Mono.empty());
+
+        assertThrows(NoSuchElementException.class,
+                () -> service.getCurrencyRateByDateAndCurrency(DATE, "XXX").block());
+    }
+
+    @Test
+    void convertToEur_usesCompactStoreWithoutQuery() {
+        when(compactRateStore.find(DATE, "USD")).thenReturn(OptionalDouble.of(1.1));
+
+        assertEquals(110.0, service.convertToEur("USD", 100, DATE).block(), 1e-9);
+        verify(reactiveRatesRepository, never()).findByDateAndCurrency(any(), any());
+    }
+
+    @Test
+    void convertToEur_withNegativeAmount_fails() {
+        assertThrows(IllegalArgumentException.class, () -> service.convertToEur("USD", -1, DATE).block());
+    }
+}
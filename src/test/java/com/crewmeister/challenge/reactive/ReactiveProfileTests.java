@@ -0,0 +1,116 @@
+package com.crewmeister.challenge.reactive;
+
+import com.crewmeister.challenge.dto.CurrencyDTO;
+import com.crewmeister.challenge.dto.CurrencyRatesDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the reactive profile on Netty with JPA and R2DBC sharing one H2 database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"warmup.enabled=false", "rates.import.on-startup=false"})
+@ActiveProfiles(ReactiveConfig.PROFILE)
+@AutoConfigureWebTestClient
+class ReactiveProfileTests {
+
+    private static final String DATABASE = "reactive-" + UUID.randomUUID();
+    private static final LocalDate DATE = LocalDate.of(2023, 1, 2);
+
+    @TempDir
+    static Path segmentDir;
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @Autowired
+    private ReactiveRatesRepository reactiveRatesRepository;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:" + DATABASE + ";DB_CLOSE_DELAY=-1");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:h2:mem:///" + DATABASE + "?options=DB_CLOSE_DELAY=-1");
+        registry.add("rates.segments.dir", segmentDir::toString);
+    }
+
+    @BeforeEach
+    void setup() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM currency_rates");
+        jdbcTemplate.update("DELETE FROM currency");
+        jdbcTemplate.update("INSERT INTO currency (id, currency_name) VALUES (1, 'USD'), (2, 'JPY')");
+        jdbcTemplate.update("INSERT INTO currency_rates (id, date, rate, version, currency_id) VALUES "
+                + "(1, ?, 1.1, 1, 1), (2, ?, 140.5, 1, 2), (3, ?, 1.2, 1, 1)", DATE, DATE, DATE.plusDays(1));
+    }
+
+    @Test
+    void servesOnNettyWithJpaAsOnlyTransactionManager() {
+        assertThat(context.getWebServer()).isInstanceOf(NettyWebServer.class);
+        assertThat(context.getBeansOfType(ReactiveTransactionManager.class)).isEmpty();
+        assertThat(context.getBean(PlatformTransactionManager.class)).isInstanceOf(JpaTransactionManager.class);
+    }
+
+    @Test
+    void repositoryQueriesRunOnH2() {
+        CurrencyDTO usd = new CurrencyDTO(1L, "USD");
+        CurrencyDTO jpy = new CurrencyDTO(2L, "JPY");
+
+        assertThat(reactiveRatesRepository.findAllCurrencies().collectList().block()).containsExactly(usd, jpy);
+        assertThat(reactiveRatesRepository.count().block()).isEqualTo(3);
+        assertThat(reactiveRatesRepository.findAll(1, 1).collectList().block())
+                .containsExactly(new CurrencyRatesDTO(2L, DATE, 140.5, jpy));
+        assertThat(reactiveRatesRepository.findByDate(DATE).collectList().block()).isEqualTo(List.of(
+                new CurrencyRatesDTO(1L, DATE, 1.1, usd), new CurrencyRatesDTO(2L, DATE, 140.5, jpy)));
+        assertThat(reactiveRatesRepository.findByDateAndCurrency(DATE.plusDays(1), "USD").block())
+                .isEqualTo(new CurrencyRatesDTO(3L, DATE.plusDays(1), 1.2, usd));
+    }
+
+    @Test
+    void ratesDefaultToFirstPageOfMvcSize() {
+        webTestClient.get().uri("/v1/api/rates")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.number").isEqualTo(0)
+                .jsonPath("$.size").isEqualTo(20)
+                .jsonPath("$.totalElements").isEqualTo(3)
+                .jsonPath("$.content.length()").isEqualTo(3);
+    }
+
+    @Test
+    void ratesPageSizeIsCapped() {
+        webTestClient.get().uri("/v1/api/rates?size=100000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size").isEqualTo(500);
+    }
+}
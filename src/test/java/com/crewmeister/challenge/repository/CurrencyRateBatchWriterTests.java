@@ -0,0 +1,103 @@
+package com.crewmeister.challenge.repository;
+
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrencyRateBatchWriterTests {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 1, 2);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CurrencyRateBatchWriter writer;
+    private Currency usd;
+
+    @BeforeEach
+    void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:writer-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE currency (id BIGINT PRIMARY KEY, currency_name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE currency_rates (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "date DATE NOT NULL, rate FLOAT(53) NOT NULL, version BIGINT NOT NULL, "
+                + "currency_id BIGINT NOT NULL REFERENCES currency(id))");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX idx_date_currency ON currency_rates (date, currency_id)");
+        jdbcTemplate.update("INSERT INTO currency (id, currency_name) VALUES (1, 'USD')");
+        usd = new Currency();
+        usd.setId(1L);
+        usd.setCurrencyName("USD");
+        writer = new CurrencyRateBatchWriter(dataSource, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    public void shouldInsertAllRatesInBatches() {
+        List<CurrencyRates> rates = rates(DATE, 10);
+
+        assertEquals(rates, writer.write(rates));
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency_rates", Integer.class));
+    }
+
+    @Test
+    public void shouldRetryRowByRowAndSkipRowsInsertedConcurrently() {
+        jdbcTemplate.update("INSERT INTO currency_rates (date, currency_id, rate, version) VALUES (?, 1, 9.9, 1)",
+                DATE.plusDays(2));
+        List<CurrencyRates> rates = rates(DATE, 8);
+
+        List<CurrencyRates> inserted = writer.write(rates);
+
+        assertEquals(7, inserted.size());
+        assertFalse(inserted.contains(rates.get(2)));
+        assertEquals(8, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency_rates", Integer.class));
+        assertEquals(9.9, jdbcTemplate.queryForObject(
+                "SELECT rate FROM currency_rates WHERE date = ?", Double.class, DATE.plusDays(2)));
+    }
+
+    @Test
+    public void shouldFailOnErrorsOtherThanDuplicates() {
+        Currency unknown = new Currency();
+        unknown.setId(99L);
+        unknown.setCurrencyName("XXX");
+        List<CurrencyRates> rates = rates(DATE, 3);
+        rates.get(1).setCurrency(unknown);
+
+        assertThrows(IllegalStateException.class, () -> writer.write(rates));
+    }
+
+    @Test
+    public void shouldStopBeforeCommittingOnceCancelled() {
+        List<CurrencyRates> rates = rates(DATE, 10);
+
+        assertThrows(IllegalStateException.class, () -> writer.write(rates, () -> true));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currency_rates", Integer.class));
+    }
+
+    private List<CurrencyRates> rates(LocalDate from, int days) {
+        List<CurrencyRates> rates = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            CurrencyRates rate = new CurrencyRates();
+            rate.setDate(from.plusDays(i));
+            rate.setCurrency(usd);
+            rate.setRate(1.0 + i);
+            rate.setVersion(2);
+            rates.add(rate);
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,93 @@
+package com.crewmeister.challenge.segment;
+
+import com.crewmeister.challenge.repository.RateValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateSegmentTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldFindRatesAfterReopening() throws Exception {
+        List<RateValue> values = List.of(
+                new RateValue(LocalDate.of(2020, 1, 2), "USD", 1.1193),
+                new RateValue(LocalDate.of(2020, 1, 2), "JPY", 121.75),
+                new RateValue(LocalDate.of(2020, 7, 15), "USD", 1.1414));
+        Path file = tempDir.resolve("rates-2020-1.seg");
+        RateSegment.write(file, 2020, values).close();
+
+        try (RateSegment segment = RateSegment.open(file)) {
+            assertEquals(2020, segment.year());
+            assertEquals(3, segment.rowCount());
+            assertEquals(OptionalDouble.of(1.1193), segment.find(LocalDate.of(2020, 1, 2), "USD"));
+            assertEquals(OptionalDouble.of(1.1414), segment.find(LocalDate.of(2020, 7, 15), "USD"));
+            assertEquals(OptionalDouble.empty(), segment.find(LocalDate.of(2020, 7, 15), "JPY"));
+            assertEquals(OptionalDouble.empty(), segment.find(LocalDate.of(2020, 3, 1), "USD"));
+            assertEquals(2, segment.find(LocalDate.of(2020, 1, 2)).size());
+        }
+    }
+
+    @Test
+    public void shouldSliceAcrossBlocksInDateOrder() throws Exception {
+        List<RateValue> values = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2019, 1, 1); date.getYear() == 2019; date = date.plusDays(1)) {
+            values.add(new RateValue(date, "USD", Double.parseDouble(String.format("1.%03d", date.getDayOfYear()))));
+        }
+
+        try (RateSegment segment = RateSegment.write(tempDir.resolve("rates-2019-1.seg"), 2019, values)) {
+            assertEquals(365, segment.rowCount());
+            assertEquals(values, segment.values());
+            assertEquals(values.subList(28, 40), segment.slice(28, 12));
+            assertEquals(values.subList(360, 365), segment.slice(360, 12));
+        }
+    }
+
+    @Test
+    public void shouldRejectRatesOfAnotherYear() {
+        List<RateValue> values = List.of(new RateValue(LocalDate.of(2021, 1, 4), "USD", 1.2));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RateSegment.write(tempDir.resolve("rates-2020-1.seg"), 2020, values));
+    }
+
+    @Test
+    public void shouldKeepOnlyNewestGenerationPerYear() throws Exception {
+        RateSegmentStore store = new RateSegmentStore(tempDir, true);
+        store.load();
+        store.store(2020, List.of(new RateValue(LocalDate.of(2020, 1, 2), "USD", 1.1)));
+        store.store(2020, List.of(new RateValue(LocalDate.of(2020, 1, 2), "USD", 1.2)));
+        store.close();
+
+        RateSegmentStore reopened = new RateSegmentStore(tempDir, true);
+        reopened.load();
+        try {
+            assertTrue(reopened.covers(LocalDate.of(2020, 6, 1)));
+            assertEquals(OptionalDouble.of(1.2), reopened.find(LocalDate.of(2020, 1, 2), "USD"));
+            assertEquals(1, reopened.rowCount());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreSegmentFilesWhenDisabled() throws Exception {
+        RateSegment.write(tempDir.resolve("rates-2020-1.seg"), 2020,
+                List.of(new RateValue(LocalDate.of(2020, 1, 2), "USD", 1.1))).close();
+
+        RateSegmentStore store = new RateSegmentStore(tempDir, false);
+        store.load();
+
+        assertFalse(store.covers(LocalDate.of(2020, 1, 2)));
+        assertEquals(0, store.rowCount());
+    }
+}
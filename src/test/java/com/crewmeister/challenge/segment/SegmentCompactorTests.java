@@ -0,0 +1,72 @@
+package com.crewmeister.challenge.segment;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.cluster.DatasetVersionTracker;
+import com.crewmeister.challenge.cluster.LeaseLock;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.repository.RateValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SegmentCompactorTests {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 3, 2);
+    private static final LocalDate FROM = LocalDate.of(2020, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2020, 12, 31);
+
+    @TempDir
+    Path tempDir;
+
+    private final CurrencyRateRepository currencyRateRepository = mock(CurrencyRateRepository.class);
+    private RateSegmentStore store;
+    private SegmentCompactor compactor;
+
+    @BeforeEach
+    void setup() {
+        store = new RateSegmentStore(tempDir, true);
+        compactor = new SegmentCompactor(currencyRateRepository, store, mock(CompactRateStore.class),
+                mock(LeaseLock.class), mock(DatasetVersionTracker.class), 0);
+        when(currencyRateRepository.findOldestDate()).thenReturn(DATE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void shouldDeleteRowsOnlyInTheRunAfterWritingTheSegment() {
+        when(currencyRateRepository.findRateValuesBetween(FROM, TO)).thenReturn(List.of(new RateValue(DATE, "USD", 1.1)));
+
+        assertEquals(1, compactor.compactClosedYears());
+
+        assertEquals(OptionalDouble.of(1.1), store.find(DATE, "USD"));
+        verify(currencyRateRepository, never()).deleteByDateBetween(any(), any());
+
+        assertEquals(0, compactor.compactClosedYears());
+
+        verify(currencyRateRepository).deleteByDateBetween(FROM, TO);
+    }
+
+    @Test
+    public void shouldRewriteSegmentForCorrections() {
+        when(currencyRateRepository.findRateValuesBetween(FROM, TO)).thenReturn(List.of(new RateValue(DATE, "USD", 1.1)));
+        compactor.compactClosedYears();
+        when(currencyRateRepository.findRateValuesBetween(FROM, TO)).thenReturn(List.of(new RateValue(DATE, "USD", 1.2)));
+
+        assertEquals(1, compactor.compactClosedYears());
+
+        assertEquals(OptionalDouble.of(1.2), store.find(DATE, "USD"));
+        verify(currencyRateRepository, never()).deleteByDateBetween(any(), any());
+    }
+}
@@ -1,12 +1,24 @@
 package com.crewmeister.challenge.service;
 
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.cluster.ImportCoordinator;
+import com.crewmeister.challenge.cluster.LeaseLock;
+import com.crewmeister.challenge.repository.CurrencyRateBatchWriter;
 import com.crewmeister.challenge.repository.CurrencyRateRepository;
 import com.crewmeister.challenge.repository.CurrencyRepository;
+import com.crewmeister.challenge.repository.ImportBatchRepository;
+import com.crewmeister.challenge.repository.RateKey;
+import com.crewmeister.challenge.repository.RateValue;
+import com.crewmeister.challenge.repository.YearCount;
+import com.crewmeister.challenge.segment.RateSegmentStore;
 import com.crewmeister.challenge.service.impl.CurrencyRatesServiceImpl;
 import com.crewmeister.challenge.model.Currency;
 import com.crewmeister.challenge.model.CurrencyRates;
+import com.crewmeister.challenge.model.ImportBatch;
+import com.crewmeister.challenge.util.ChangeToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -14,9 +26,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,12 +43,32 @@ public class CurrencyRatesServiceTests {
     @Mock
     private CurrencyRepository currencyRepository;
 
+    @Mock
+    private CurrencyRateBatchWriter currencyRateBatchWriter;
+
+    @Mock
+    private CompactRateStore compactRateStore;
+
+    @Mock
+    private ImportBatchRepository importBatchRepository;
+
+    @Mock
+    private RateSegmentStore rateSegmentStore;
+
+    @Mock
+    private LeaseLock leaseLock;
+
     @InjectMocks
     private CurrencyRatesServiceImpl service;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        when(importBatchRepository.save(any())).thenAnswer(invocation -> {
+            ImportBatch batch = invocation.getArgument(0);
+            batch.setId(7L);
+            return batch;
+        });
     }
 
     @Test
@@ -116,6 +150,17 @@ public class CurrencyRatesServiceTests {
         assertEquals(120.0, result);
     }
 
+    @Test
+    public void shouldConvertToEurFromCompactStore() {
+        LocalDate date = LocalDate.now();
+        when(compactRateStore.find(date, "USD")).thenReturn(OptionalDouble.of(1.2));
+
+        Double result = service.convertToEur("USD", 100, date);
+
+        assertEquals(120.0, result);
+        verify(currencyRateRepository, never()).findByDateAndCurrency_CurrencyName(any(), any());
+    }
+
     @Test
     public void shouldThrowExceptionForNegativeAmount() {
         assertThrows(IllegalArgumentException.class, () ->
@@ -137,11 +182,12 @@ public class CurrencyRatesServiceTests {
         Currency currency = setCurrency("USD");
         CurrencyRates rate = setCurrencyRates(LocalDate.now(), 1.0, currency);
 
-        when(currencyRateRepository.findByDateAndCurrency_CurrencyName(any(), any())).thenReturn(Optional.empty());
+        when(currencyRateRepository.findAllRateKeys()).thenReturn(List.of());
 
         service.saveRates(List.of(rate));
 
-        verify(currencyRateRepository).save(rate);
+        verify(currencyRateBatchWriter).write(eq(List.of(rate)), any());
+        verify(currencyRateRepository, never()).findByDateAndCurrency_CurrencyName(any(), any());
     }
 
     @Test
@@ -149,11 +195,190 @@ public class CurrencyRatesServiceTests {
         Currency currency = setCurrency("USD");
         CurrencyRates rate = setCurrencyRates(LocalDate.now(), 1.0, currency);
 
-        when(currencyRateRepository.findByDateAndCurrency_CurrencyName(any(), any())).thenReturn(Optional.of(rate));
+        when(currencyRateRepository.findAllRateKeys()).thenReturn(List.of(new RateKey(LocalDate.now(), "USD")));
 
         service.saveRates(List.of(rate));
 
-        verify(currencyRateRepository, never()).save(rate);
+        verify(currencyRateBatchWriter, never()).write(any(), any());
+    }
+
+    @Test
+    public void shouldSkipDuplicatesWithinBatch() {
+        Currency currency = setCurrency("USD");
+        LocalDate date = LocalDate.of(2023, 1, 2);
+        CurrencyRates first = setCurrencyRates(date, 1.0, currency);
+        CurrencyRates duplicate = setCurrencyRates(date, 1.1, currency);
+        CurrencyRates nextDay = setCurrencyRates(date.plusDays(1), 1.2, currency);
+
+        when(currencyRateRepository.findAllRateKeys()).thenReturn(List.of());
+
+        service.saveRates(List.of(first, duplicate, nextDay));
+
+        verify(currencyRateBatchWriter).write(eq(List.of(first, nextDay)), any());
+    }
+
+    @Test
+    public void shouldSaveRatesWithOutlierDates() {
+        Currency currency = setCurrency("USD");
+        CurrencyRates outlier = setCurrencyRates(LocalDate.of(1, 1, 1), 1.0, currency);
+        CurrencyRates rate = setCurrencyRates(LocalDate.of(2023, 1, 2), 1.1, currency);
+
+        when(currencyRateRepository.findAllRateKeys()).thenReturn(List.of(new RateKey(LocalDate.of(9999, 12, 31), "USD")));
+
+        service.saveRates(List.of(outlier, rate));
+
+        verify(currencyRateBatchWriter).write(eq(List.of(outlier, rate)), any());
+    }
+
+    @Test
+    public void shouldStampSavedRatesWithImportVersion() {
+        CurrencyRates rate = setCurrencyRates(LocalDate.now(), 1.0, setCurrency("USD"));
+
+        service.saveRates(List.of(rate));
+
+        assertEquals(7L, rate.getVersion());
+        verify(importBatchRepository, times(2)).save(any());
+    }
+
+    @Test
+    public void shouldReturnOnlyCompletedRateChanges() {
+        ChangeToken position = new ChangeToken(3, 40);
+        List<CurrencyRates> changes = List.of(mock(CurrencyRates.class));
+        when(importBatchRepository.findLatestCompletedVersion()).thenReturn(5L);
+        when(currencyRateRepository.findChangesAfter(eq(3L), eq(40L), eq(5L), any())).thenReturn(changes);
+
+        List<CurrencyRates> result = service.getRateChanges(position, 10);
+
+        assertEquals(changes, result);
+    }
+
+    @Test
+    public void shouldFetchSeveralDatesWithOneQuery() {
+        Set<LocalDate> dates = Set.of(LocalDate.of(2023, 1, 31), LocalDate.of(2023, 2, 28));
+        List<CurrencyRates> rates = List.of(mock(CurrencyRates.class));
+        when(currencyRateRepository.findByDates(dates)).thenReturn(rates);
+
+        assertEquals(rates, service.getCurrencyRatesByDates(dates, Set.of()));
+        verify(currencyRateRepository, never()).findByDatesAndCurrencies(any(), any());
+    }
+
+    @Test
+    public void shouldFilterSeveralDatesByCurrency() {
+        Set<LocalDate> dates = Set.of(LocalDate.of(2023, 1, 31));
+        List<CurrencyRates> rates = List.of(mock(CurrencyRates.class));
+        when(currencyRateRepository.findByDatesAndCurrencies(dates, Set.of("USD"))).thenReturn(rates);
+
+        assertEquals(rates, service.getCurrencyRatesByDates(dates, Set.of("USD")));
+        verify(currencyRateRepository, never()).findByDates(any());
+    }
+
+    @Test
+    public void shouldMergeArchivedRatesMissingFromTable() {
+        LocalDate date = LocalDate.of(2020, 3, 2);
+        Currency usd = setCurrency("USD");
+        CurrencyRates stored = setCurrencyRates(date, 1.2, usd);
+        when(currencyRateRepository.findByDate(date)).thenReturn(List.of(stored));
+        when(currencyRepository.findAllCurrency()).thenReturn(List.of(usd, setCurrency("AUD")));
+        when(rateSegmentStore.covers(date)).thenReturn(true);
+        when(rateSegmentStore.find(date)).thenReturn(List.of(new RateValue(date, "USD", 1.1), new RateValue(date, "AUD", 1.6)));
+
+        List<CurrencyRates> result = service.getCurrencyRatesByDate(date);
+
+        assertEquals(2, result.size());
+        assertEquals("AUD", result.get(0).getCurrency().getCurrencyName());
+        assertEquals(1.6, result.get(0).getRate());
+        assertSame(stored, result.get(1));
+    }
+
+    @Test
+    public void shouldFindArchivedRateWhenNotInTable() {
+        LocalDate date = LocalDate.of(2020, 3, 2);
+        when(currencyRateRepository.findByDateAndCurrency_CurrencyName(date, "USD")).thenReturn(Optional.empty());
+        when(rateSegmentStore.find(date, "USD")).thenReturn(OptionalDouble.of(1.1));
+
+        CurrencyRates result = service.getCurrencyRateByDateAndCurrency(date, "USD");
+
+        assertEquals(1.1, result.getRate());
+        assertEquals("USD", result.getCurrency().getCurrencyName());
+    }
+
+    @Test
+    public void shouldSkipRatesAlreadyArchived() {
+        LocalDate date = LocalDate.of(2020, 3, 2);
+        when(rateSegmentStore.covers(date)).thenReturn(true);
+        when(rateSegmentStore.find(date, "USD")).thenReturn(OptionalDouble.of(1.1));
+
+        service.saveRates(List.of(setCurrencyRates(date, 1.1, setCurrency("USD"))));
+
+        verify(currencyRateBatchWriter, never()).write(any(), any());
+        verify(rateSegmentStore, never()).findAll();
+    }
+
+    @Test
+    public void shouldImportCorrectionsOfArchivedRates() {
+        LocalDate date = LocalDate.of(2020, 3, 2);
+        CurrencyRates corrected = setCurrencyRates(date, 1.2, setCurrency("USD"));
+        when(rateSegmentStore.covers(date)).thenReturn(true);
+        when(rateSegmentStore.find(date, "USD")).thenReturn(OptionalDouble.of(1.1));
+
+        service.saveRates(List.of(corrected));
+
+        verify(currencyRateBatchWriter).write(eq(List.of(corrected)), any());
+    }
+
+    @Test
+    public void shouldPageArchivedYearsAndTableYearsByDate() {
+        LocalDate archivedDate = LocalDate.of(2020, 3, 2);
+        Currency usd = setCurrency("USD");
+        CurrencyRates correction = setCurrencyRates(archivedDate, 1.2, usd);
+        CurrencyRates stored = setCurrencyRates(LocalDate.of(2026, 1, 2), 1.3, usd);
+        when(rateSegmentStore.years()).thenReturn(new TreeSet<>(Set.of(2020)));
+        when(rateSegmentStore.rowCount(2020)).thenReturn(3L);
+        when(rateSegmentStore.find(archivedDate, "USD")).thenReturn(OptionalDouble.of(1.1));
+        when(rateSegmentStore.values(2020)).thenReturn(List.of(new RateValue(archivedDate, "USD", 1.1),
+                new RateValue(LocalDate.of(2020, 3, 3), "AUD", 1.6), new RateValue(LocalDate.of(2020, 3, 3), "USD", 1.1)));
+        when(currencyRateRepository.countByYear()).thenReturn(List.of(new YearCount(2020, 1), new YearCount(2026, 2)));
+        when(currencyRateRepository.findByDateBetween(eq(LocalDate.of(2020, 1, 1)), eq(LocalDate.of(2020, 12, 31)), any()))
+                .thenReturn(List.of(correction));
+        when(currencyRateRepository.findByDateBetween(eq(LocalDate.of(2026, 1, 1)), eq(LocalDate.of(2026, 12, 31)), any()))
+                .thenReturn(List.of(stored));
+
+        Page<CurrencyRates> page = service.getAllCurrencyRates(PageRequest.of(1, 2));
+
+        assertEquals(2, page.getNumberOfElements());
+        assertEquals(LocalDate.of(2020, 3, 3), page.getContent().get(0).getDate());
+        assertEquals("USD", page.getContent().get(0).getCurrency().getCurrencyName());
+        assertSame(stored, page.getContent().get(1));
+        // The correction replaces its archived rate instead of being counted twice
+        assertEquals(5, page.getTotalElements());
+        ArgumentCaptor<Pageable> window = ArgumentCaptor.forClass(Pageable.class);
+        verify(currencyRateRepository).findByDateBetween(eq(LocalDate.of(2026, 1, 1)), eq(LocalDate.of(2026, 12, 31)),
+                window.capture());
+        assertEquals(0, window.getValue().getOffset());
+        assertEquals(1, window.getValue().getPageSize());
+    }
+
+    @Test
+    public void shouldPageArchivedRatesNewestFirst() {
+        LocalDate date = LocalDate.of(2020, 3, 2);
+        when(rateSegmentStore.years()).thenReturn(new TreeSet<>(Set.of(2020)));
+        when(rateSegmentStore.rowCount(2020)).thenReturn(5L);
+        when(rateSegmentStore.slice(2020, 3, 2)).thenReturn(List.of(new RateValue(date, "AUD", 1.6),
+                new RateValue(date.plusDays(1), "AUD", 1.7)));
+
+        Page<CurrencyRates> page = service.getAllCurrencyRates(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "date")));
+
+        assertEquals(date.plusDays(1), page.getContent().get(0).getDate());
+        assertEquals(date, page.getContent().get(1).getDate());
+        assertEquals(5, page.getTotalElements());
+    }
+
+    @Test
+    public void shouldRejectSortsOtherThanDateWhileSegmentsExist() {
+        when(rateSegmentStore.years()).thenReturn(new TreeSet<>(Set.of(2020)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getAllCurrencyRates(PageRequest.of(0, 2, Sort.by("rate"))));
     }
 
     @Test
@@ -161,10 +386,36 @@ public class CurrencyRatesServiceTests {
         Currency currency = setCurrency("USD");
         CurrencyRates rate = setCurrencyRates(LocalDate.now(), 1.0, currency);
 
-        when(currencyRateRepository.findByDateAndCurrency_CurrencyName(any(), any()))
-                .thenThrow(new RuntimeException("DB error"));
+        when(currencyRateBatchWriter.write(any(), any())).thenThrow(new RuntimeException("DB error"));
+
+        assertDoesNotThrow(() -> service.saveRates(List.of(rate)));
+        // The batch is completed with the rates committed before the failure, so the change feed is not blocked
+        verify(currencyRateRepository).findByVersion(7L);
+        ArgumentCaptor<ImportBatch> batch = ArgumentCaptor.forClass(ImportBatch.class);
+        verify(importBatchRepository, times(2)).save(batch.capture());
+        assertNotNull(batch.getValue().getCompletedAt());
+    }
+
+    @Test
+    public void shouldStopWritingOnceImportLeaseIsLost() {
+        Currency currency = setCurrency("USD");
+        CurrencyRates rate = setCurrencyRates(LocalDate.now(), 1.0, currency);
+
+        service.saveRates(List.of(rate));
+
+        ArgumentCaptor<BooleanSupplier> cancelled = ArgumentCaptor.forClass(BooleanSupplier.class);
+        verify(currencyRateBatchWriter).write(eq(List.of(rate)), cancelled.capture());
+        assertFalse(cancelled.getValue().getAsBoolean());
+        when(leaseLock.isLost(ImportCoordinator.IMPORT_LOCK)).thenReturn(true);
+        assertTrue(cancelled.getValue().getAsBoolean());
+    }
+
+    @Test
+    public void shouldSkipInvalidRates() {
+        CurrencyRates rate = setCurrencyRates(LocalDate.now(), 1.0, null);
 
         assertDoesNotThrow(() -> service.saveRates(List.of(rate)));
+        verify(currencyRateBatchWriter, never()).write(any(), any());
     }
 
     Currency setCurrency(String currencyName) {
@@ -0,0 +1,128 @@
+package com.crewmeister.challenge.service.impl;
+
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.model.CurrencyRates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvSegmentsTests {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldMoveBoundariesOfStraddlingLinesToNextLine() throws Exception {
+        String body = lines(40, "\n");
+        CsvSegments csv = CsvSegments.split(bytes("Date,USD\n" + body), 7);
+
+        assertEquals("Date,USD", csv.header());
+        assertTrue(csv.segments().size() > 1);
+        assertSegmentsCover(body, csv, "\n");
+        assertEquals(40, parse(csv, "USD").size());
+    }
+
+    @Test
+    public void shouldSplitCrLfFilesAfterLineFeed() throws Exception {
+        String body = lines(30, "\r\n");
+        CsvSegments csv = CsvSegments.split(bytes("Date,USD\r\n" + body), 5);
+
+        assertEquals("Date,USD", csv.header());
+        assertSegmentsCover(body, csv, "\r\n");
+        List<CurrencyRates> rates = parse(csv, "USD");
+        assertEquals(30, rates.size());
+        assertEquals(1.5, rates.get(0).getRate());
+    }
+
+    @Test
+    public void shouldKeepLastLineWithoutLineEnd() throws Exception {
+        String body = lines(10, "\n") + "2/1/2023,2.5";
+        CsvSegments csv = CsvSegments.split(bytes("Date,USD\n" + body), 4);
+
+        List<String> segments = strings(csv);
+        assertEquals(body, String.join("", segments));
+        assertTrue(segments.get(segments.size() - 1).endsWith("2/1/2023,2.5"));
+        List<CurrencyRates> rates = parse(csv, "USD");
+        assertEquals(11, rates.size());
+        assertEquals(LocalDate.of(2023, 2, 1), rates.get(10).getDate());
+    }
+
+    @Test
+    public void shouldMapFilesAtLineBoundaries() throws Exception {
+        String body = lines(25, "\n");
+        Path file = tempDir.resolve("rates.csv");
+        Files.writeString(file, "Date,USD\n" + body, StandardCharsets.US_ASCII);
+
+        CsvSegments csv;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            csv = CsvSegments.map(channel, 6);
+        }
+
+        assertEquals("Date,USD", csv.header());
+        assertSegmentsCover(body, csv, "\n");
+    }
+
+    @Test
+    public void shouldHandleEmptyAndHeaderOnlySources() throws Exception {
+        assertNull(CsvSegments.split(bytes(""), 4).header());
+
+        CsvSegments headerOnly = CsvSegments.split(bytes("Date,USD\n"), 4);
+        assertEquals("Date,USD", headerOnly.header());
+        assertTrue(headerOnly.segments().isEmpty());
+    }
+
+    private static void assertSegmentsCover(String body, CsvSegments csv, String lineEnd) {
+        List<String> segments = strings(csv);
+        assertEquals(body, String.join("", segments));
+        for (String segment : segments) {
+            assertTrue(segment.endsWith(lineEnd), "Segment does not end on a line boundary: " + segment);
+        }
+    }
+
+    private static List<CurrencyRates> parse(CsvSegments csv, String... currencies) {
+        String[] headers = csv.header().split(",");
+        Map<String, Currency> currencyMap = new HashMap<>();
+        for (String code : currencies) {
+            Currency currency = new Currency();
+            currency.setCurrencyName(code);
+            currencyMap.put(code, currency);
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new CsvSegmentParseTask(csv.segments(), 0, csv.segments().size(), headers, currencyMap));
+    }
+
+    private static String lines(int count, String lineEnd) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append(LocalDate.of(2023, 1, 1).plusDays(i).format(FORMATTER))
+                    .append(',').append(1.5 + i / 100.0).append(lineEnd);
+        }
+        return lines.toString();
+    }
+
+    private static List<String> strings(CsvSegments csv) {
+        return csv.segments().stream()
+                .map(segment -> StandardCharsets.US_ASCII.decode(segment.duplicate()).toString())
+                .toList();
+    }
+
+    private static ByteBuffer bytes(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,78 @@
+package com.crewmeister.challenge.service.impl;
+
+import com.crewmeister.challenge.cache.CompactRateStore;
+import com.crewmeister.challenge.service.RatesExportService.ExportFile;
+import com.crewmeister.challenge.util.CompactRateTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class RatesExportServiceImplTests {
+
+    @Mock
+    private CompactRateStore compactRateStore;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(compactRateStore.current()).thenReturn(new CompactRateTable.Builder()
+                .add(LocalDate.of(2023, 1, 2), "USD", 1.0683)
+                .build());
+    }
+
+    @Test
+    public void shouldKeepPreviousExportDuringRetention() {
+        RatesExportServiceImpl service = new RatesExportServiceImpl(compactRateStore, tempDir, 60_000);
+        service.materialize();
+        ExportFile first = service.currentExport(false).orElseThrow();
+
+        service.materialize();
+        service.deleteRetired();
+
+        assertNotEquals(first.path(), service.currentExport(false).orElseThrow().path());
+        assertTrue(Files.exists(first.path()));
+    }
+
+    @Test
+    public void shouldDeletePreviousExportAfterRetention() {
+        RatesExportServiceImpl service = new RatesExportServiceImpl(compactRateStore, tempDir, 0);
+        service.materialize();
+        ExportFile first = service.currentExport(false).orElseThrow();
+        ExportFile firstGzip = service.currentExport(true).orElseThrow();
+
+        service.materialize();
+        service.deleteRetired();
+
+        assertFalse(Files.exists(first.path()));
+        assertFalse(Files.exists(firstGzip.path()));
+        assertTrue(Files.exists(service.currentExport(false).orElseThrow().path()));
+    }
+
+    @Test
+    public void shouldLeaveExportsOfOtherInstancesInSharedDirectory() {
+        RatesExportServiceImpl first = new RatesExportServiceImpl(compactRateStore, tempDir, 60_000);
+        RatesExportServiceImpl second = new RatesExportServiceImpl(compactRateStore, tempDir, 60_000);
+        first.materialize();
+        second.onApplicationReady();
+        ExportFile served = first.currentExport(false).orElseThrow();
+        ExportFile own = second.currentExport(false).orElseThrow();
+
+        second.deleteInstanceFiles();
+
+        assertTrue(Files.exists(served.path()));
+        assertFalse(Files.exists(own.path()));
+        assertFalse(Files.exists(own.path().getParent()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.crewmeister.challenge.startup;
+
+import com.crewmeister.challenge.model.Currency;
+import com.crewmeister.challenge.repository.CurrencyRateRepository;
+import com.crewmeister.challenge.service.CurrencyRatesService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class WarmupRunnerTests {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 1, 2);
+
+    @Mock
+    private CurrencyRatesService currencyRatesService;
+
+    @Mock
+    private CurrencyRateRepository currencyRateRepository;
+
+    private WarmupRunner warmupRunner;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        warmupRunner = new WarmupRunner(currencyRatesService, currencyRateRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()), 30, 60_000, 2, 5, Integer.MAX_VALUE);
+        when(currencyRatesService.getAllCurrencyRates(any())).thenReturn(Page.empty());
+    }
+
+    @Test
+    void run_withoutRates_skipsReplay() throws Exception {
+        when(currencyRateRepository.findRecentDates(any())).thenReturn(List.of());
+
+        warmupRunner.run(null);
+
+        verify(currencyRatesService, never()).convertToEur(anyString(), anyDouble(), any());
+    }
+
+    @Test
+    void run_replaysMixUntilRoundLimit_andIgnoresMissingRates() throws Exception {
+        Currency usd = new Currency();
+        usd.setCurrencyName("USD");
+        when(currencyRateRepository.findRecentDates(any())).thenReturn(List.of(DATE));
+        when(currencyRatesService.getAllCurrencies()).thenReturn(List.of(usd));
+        when(currencyRatesService.convertToEur("USD", 100.0, DATE)).thenThrow(new NoSuchElementException());
+
+        warmupRunner.run(null);
+
+        verify(currencyRatesService, times(2)).convertToEur("USD", 100.0, DATE);
+        // once to fill the caches, then once per round
+        verify(currencyRatesService, times(3)).getCurrencyRatesByDate(DATE);
+    }
+}
@@ -0,0 +1,52 @@
+package com.crewmeister.challenge.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static com.crewmeister.challenge.timing.RequestTimings.Phase.DB;
+import static com.crewmeister.challenge.timing.RequestTimings.Phase.MAPPING;
+import static com.crewmeister.challenge.timing.RequestTimings.Phase.SERIALIZATION;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestTimingsTests {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    @Test
+    public void shouldIgnoreRecordingOutsideRequest() {
+        RequestTimings.record(DB, 1_000_000);
+
+        assertNull(RequestTimings.current());
+        assertEquals("value", RequestTimings.time(MAPPING, () -> "value"));
+    }
+
+    @Test
+    public void shouldAccumulatePhasesOfCurrentRequest() {
+        RequestTimings timings = RequestTimings.begin();
+
+        RequestTimings.record(DB, 1_000_000);
+        RequestTimings.record(DB, 500_000);
+        RequestTimings.time(MAPPING, () -> "value");
+
+        assertSame(timings, RequestTimings.current());
+        assertEquals(1_500_000, timings.nanos(DB));
+        assertEquals(2, timings.count(DB));
+        assertEquals(1, timings.count(MAPPING));
+        assertEquals(0, timings.count(SERIALIZATION));
+    }
+
+    @Test
+    public void shouldFormatServerTimingHeader() {
+        RequestTimings timings = RequestTimings.begin();
+        timings.add(DB, 1_520_000);
+        timings.add(SERIALIZATION, 400_000);
+
+        String header = timings.toHeaderValue();
+
+        assertTrue(header.startsWith("db;dur=1.52;desc=\"1 statements\", ser;dur=0.40, app;dur="), header);
+        assertFalse(header.contains("map;"));
+    }
+}
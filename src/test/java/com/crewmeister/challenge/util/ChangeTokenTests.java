@@ -0,0 +1,30 @@
+package com.crewmeister.challenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeTokenTests {
+
+    @Test
+    public void shouldTreatBareVersionAsFullyRead() {
+        ChangeToken token = ChangeToken.parse("5");
+
+        assertEquals(new ChangeToken(5, Long.MAX_VALUE), token);
+        assertEquals("5", token.toString());
+    }
+
+    @Test
+    public void shouldRoundTripPositionWithinVersion() {
+        assertEquals(new ChangeToken(4, 12), ChangeToken.parse("4:12"));
+        assertEquals("4:12", new ChangeToken(4, 12).toString());
+        assertEquals("4:0", new ChangeToken(4, 0).toString());
+        assertEquals(new ChangeToken(4, 0), ChangeToken.parse("4:0"));
+    }
+
+    @Test
+    public void shouldRejectMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> ChangeToken.parse("abc"));
+        assertThrows(IllegalArgumentException.class, () -> ChangeToken.parse("4:"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.crewmeister.challenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactRateTableTests {
+
+    private static final LocalDate DAY_ONE = LocalDate.of(2023, 1, 2);
+    private static final LocalDate DAY_TWO = LocalDate.of(2023, 1, 3);
+
+    @Test
+    public void shouldDecodeExactSourceValues() {
+        CompactRateTable table = sampleTable();
+
+        assertEquals(OptionalDouble.of(Double.parseDouble("0.8863")), table.find(DAY_ONE, "GBP"));
+        assertEquals(OptionalDouble.of(Double.parseDouble("0.88048")), table.find(DAY_TWO, "GBP"));
+        assertEquals(OptionalDouble.of(Double.parseDouble("139.62")), table.find(DAY_ONE, "JPY"));
+        assertEquals(OptionalDouble.of(Double.parseDouble("16631.78")), table.find(DAY_ONE, "IDR"));
+        assertEquals(OptionalDouble.of(Double.parseDouble("1357.8")), table.find(DAY_ONE, "KRW"));
+    }
+
+    @Test
+    public void shouldPickScaleFromObservedPrecision() {
+        CompactRateTable table = sampleTable();
+
+        assertEquals(5, table.scale("GBP"));
+        assertEquals(2, table.scale("JPY"));
+        assertEquals(1, table.scale("KRW"));
+    }
+
+    @Test
+    public void shouldReturnEmptyForMissingRates() {
+        CompactRateTable table = sampleTable();
+
+        assertTrue(table.find(DAY_TWO, "KRW").isEmpty());
+        assertTrue(table.find(DAY_ONE, "USD").isEmpty());
+        assertTrue(table.find(DAY_ONE.minusDays(1), "GBP").isEmpty());
+        assertTrue(CompactRateTable.empty().find(DAY_ONE, "GBP").isEmpty());
+    }
+
+    @Test
+    public void shouldRoundTripPersistedForm() throws IOException {
+        CompactRateTable table = sampleTable();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+
+        CompactRateTable restored = CompactRateTable.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        for (String currency : table.currencies()) {
+            assertEquals(table.scale(currency), restored.scale(currency));
+            assertEquals(table.find(DAY_ONE, currency), restored.find(DAY_ONE, currency));
+            assertEquals(table.find(DAY_TWO, currency), restored.find(DAY_TWO, currency));
+        }
+    }
+
+    @Test
+    public void shouldDecodeEveryAddedValueExactly() {
+        Random random = new Random(11);
+        double[] rates = new double[1000];
+        CompactRateTable.Builder builder = new CompactRateTable.Builder();
+        for (int day = 0; day < rates.length; day++) {
+            int scale = random.nextInt(7);
+            rates[day] = Math.round(random.nextDouble() * 20_000 * Math.pow(10, scale)) / Math.pow(10, scale);
+            builder.add(DAY_ONE.plusDays(day), "XYZ", rates[day]);
+        }
+
+        CompactRateTable table = builder.build();
+
+        for (int day = 0; day < rates.length; day++) {
+            assertEquals(OptionalDouble.of(rates[day]), table.find(DAY_ONE.plusDays(day), "XYZ"));
+        }
+    }
+
+    @Test
+    public void shouldKeepRatesBeyondTheExactRangeAsRawDoubles() throws IOException {
+        CompactRateTable table = new CompactRateTable.Builder()
+                .add(DAY_ONE, "ABC", 123456789.12345679)
+                .add(DAY_TWO, "ABC", 1e300)
+                .add(DAY_ONE, "XYZ", 0.12345)
+                .add(DAY_TWO, "XYZ", 1e12)
+                .add(DAY_ONE, "GBP", 0.8863)
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+        CompactRateTable restored = CompactRateTable.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        for (CompactRateTable decoded : List.of(table, restored)) {
+            assertEquals(OptionalDouble.of(123456789.12345679), decoded.find(DAY_ONE, "ABC"));
+            assertEquals(OptionalDouble.of(1e300), decoded.find(DAY_TWO, "ABC"));
+            assertEquals(OptionalDouble.of(0.12345), decoded.find(DAY_ONE, "XYZ"));
+            assertEquals(OptionalDouble.of(1e12), decoded.find(DAY_TWO, "XYZ"));
+            assertEquals(OptionalDouble.empty(), decoded.find(DAY_TWO, "GBP"));
+            assertEquals(-1, decoded.scale("XYZ"));
+            assertEquals(4, decoded.scale("GBP"));
+        }
+    }
+
+    private CompactRateTable sampleTable() {
+        return new CompactRateTable.Builder()
+                .add(DAY_ONE, "GBP", 0.8863)
+                .add(DAY_TWO, "GBP", 0.88048)
+                .add(DAY_ONE, "JPY", 139.62)
+                .add(DAY_TWO, "JPY", 137.93)
+                .add(DAY_ONE, "IDR", 16631.78)
+                .add(DAY_TWO, "IDR", 16471.95)
+                .add(DAY_ONE, "KRW", 1357.8)
+                .build();
+    }
+}
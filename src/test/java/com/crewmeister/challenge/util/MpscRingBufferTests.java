@@ -0,0 +1,71 @@
+package com.crewmeister.challenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MpscRingBufferTests {
+
+    @Test
+    public void shouldPollInFifoOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+
+        assertEquals(1, buffer.poll());
+        assertEquals(2, buffer.poll());
+        assertEquals(3, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void shouldRejectWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(99));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(99));
+    }
+
+    @Test
+    public void shouldNotLoseElementsFromConcurrentProducers() throws InterruptedException {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        int polled = 0;
+        while (done.getCount() > 0 || polled < accepted.get()) {
+            if (buffer.poll() != null) {
+                polled++;
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(accepted.get(), polled);
+        assertNull(buffer.poll());
+    }
+}
@@ -0,0 +1,35 @@
+package com.crewmeister.challenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateCoverageTests {
+
+    @Test
+    public void shouldUseBitmapForDenseRange() {
+        RateCoverage coverage = RateCoverage.forRange(LocalDate.of(2020, 1, 1), LocalDate.of(2024, 12, 31),
+                List.of("USD", "JPY"));
+
+        assertInstanceOf(RateCoverageBitmap.class, coverage);
+        assertTrue(coverage.add(LocalDate.of(2022, 6, 1), "JPY"));
+        assertFalse(coverage.add(LocalDate.of(2022, 6, 1), "JPY"));
+        assertTrue(coverage.contains(LocalDate.of(2022, 6, 1), "JPY"));
+        assertFalse(coverage.contains(LocalDate.of(2022, 6, 1), "USD"));
+    }
+
+    @Test
+    public void shouldFallBackToHashSetForOutlierDates() {
+        RateCoverage coverage = RateCoverage.forRange(LocalDate.MIN, LocalDate.MAX, List.of("USD"));
+
+        assertFalse(coverage instanceof RateCoverageBitmap);
+        assertTrue(coverage.add(LocalDate.MIN, "USD"));
+        assertTrue(coverage.add(LocalDate.MAX, "USD"));
+        assertFalse(coverage.add(LocalDate.MAX, "USD"));
+        assertTrue(coverage.contains(LocalDate.MIN, "USD"));
+        assertFalse(coverage.contains(LocalDate.of(2020, 1, 1), "USD"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.crewmeister.challenge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTests {
+
+    @Test
+    public void shouldShareOneCallBetweenConcurrentCallers() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return 42;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<Integer>> others = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                others.add(executor.submit(() -> singleFlight.execute("key", calls::incrementAndGet)));
+            }
+            // The first call is still running, so the others can only join it
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(42, first.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> other : others) {
+                assertEquals(42, other.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRunAgainOnceCallCompleted() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("key", calls::incrementAndGet);
+        singleFlight.execute("key", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void shouldRethrowLoaderException() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+        assertThrows(NoSuchElementException.class, () -> singleFlight.execute("key", () -> {
+            throw new NoSuchElementException("missing");
+        }));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.crewmeister.challenge.dataset;
+
+import java.time.LocalDate;
+
+/**
+ * Shape of a generated exchange rate dataset.
+ *
+ * @param startDate              first calendar date considered
+ * @param businessDays           number of weekdays to generate, including those dropped as holidays
+ * @param currencies             number of currency columns
+ * @param seed                   seed making the output reproducible
+ * @param holidayProbability     chance that a weekday has no row at all
+ * @param missingCellProbability chance that a single rate is left blank
+ * @param lateListingProbability chance that a currency only starts being quoted part way through the range
+ */
+public record DatasetSpec(LocalDate startDate, int businessDays, int currencies, long seed,
+                          double holidayProbability, double missingCellProbability, double lateListingProbability) {
+
+    /** Number of distinct three letter currency codes. */
+    public static final int MAX_CURRENCIES = 26 * 26 * 26;
+
+    public DatasetSpec {
+        if (businessDays < 0 || currencies < 1) {
+            throw new IllegalArgumentException("Dataset needs a non-negative number of days and at least one currency");
+        }
+        if (currencies > MAX_CURRENCIES) {
+            throw new IllegalArgumentException("Dataset cannot have more than " + MAX_CURRENCIES + " currencies");
+        }
+    }
+
+    /**
+     * Dataset with realistic gap rates: about one holiday per 40 business days, rare blank cells
+     * and a tenth of the currencies listed late.
+     */
+    public static DatasetSpec of(int businessDays, int currencies, long seed) {
+        return new DatasetSpec(LocalDate.of(1999, 1, 4), businessDays, currencies, seed, 0.025, 0.001, 0.1);
+    }
+
+    public DatasetSpec withStartDate(LocalDate startDate) {
+        return new DatasetSpec(startDate, businessDays, currencies, seed,
+                holidayProbability, missingCellProbability, lateListingProbability);
+    }
+
+    public DatasetSpec withoutGaps() {
+        return new DatasetSpec(startDate, businessDays, currencies, seed, 0, 0, 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.crewmeister.challenge.dataset;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Summary of a generated dataset.
+ *
+ * @param location   file or JDBC URL the data was written to
+ * @param dates      dates that have a row, in ascending order
+ * @param currencies currency codes in column order
+ * @param rateCount  number of non-blank rates written
+ * @param quoted     cells that hold a rate, indexed by {@code dateIndex * currencies.size() + currencyIndex}
+ */
+public record GeneratedDataset(String location, List<LocalDate> dates, List<String> currencies, long rateCount,
+                               BitSet quoted) {
+
+    /**
+     * @return the location as a path, for datasets written to a CSV file
+     */
+    public Path file() {
+        return Path.of(location);
+    }
+
+    /**
+     * @param dateIndex     index into {@link #dates()}
+     * @param currencyIndex index into {@link #currencies()}
+     * @return whether the dataset holds a rate for that date and currency
+     */
+    public boolean hasRate(int dateIndex, int currencyIndex) {
+        return quoted.get(dateIndex * currencies.size() + currencyIndex);
+    }
+}
@@ -0,0 +1,311 @@
+package com.crewmeister.challenge.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic exchange rate datasets in the {@code exchange_rates.csv} layout:
+ * a {@code date,AUD,CAD,...} header followed by one row per business day with {@code M/d/yyyy} dates.
+ * Rates follow a per-currency random walk with ECB-like precision. Holidays, blank cells and
+ * late-listed currencies produce realistic gaps. The same {@link DatasetSpec} always yields the same output.
+ *
+ * <p>Usable from tests and benchmarks, and from the command line through {@code ./gradlew generateDataset}.
+ */
+public final class RatesDatasetGenerator {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    /** Real currency codes used first, in the order of the bundled dataset followed by other ECB quotes. */
+    private static final List<String> KNOWN_CODES = List.of(
+            "AUD", "CAD", "CHF", "CNY", "GBP", "JPY", "KRW", "MYR", "USD", "ZAR", "IDR",
+            "BGN", "BRL", "CZK", "DKK", "HKD", "HUF", "ILS", "INR", "ISK", "MXN", "NOK", "NZD", "PHP", "PLN",
+            "RON", "SEK", "SGD", "THB", "TRY", "CYP", "EEK", "LTL", "LVL", "MTL", "SIT", "SKK", "HRK", "RUB");
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final DatasetSpec spec;
+
+    public RatesDatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Receives generated rows. Blank cells are {@code null}.
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(LocalDate date, String[] rates) throws IOException, SQLException;
+    }
+
+    /**
+     * @return the currency codes of the dataset, in column order
+     */
+    public List<String> currencyCodes() {
+        Set<String> codes = new LinkedHashSet<>(KNOWN_CODES.subList(0, Math.min(KNOWN_CODES.size(), spec.currencies())));
+        // Synthetic codes start at QAA and wrap around through ZZZ to PZZ, covering every three letter code once
+        for (int i = 0; codes.size() < spec.currencies(); i++) {
+            codes.add("" + (char) ('A' + (i / 676 + 16) % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        return new ArrayList<>(codes);
+    }
+
+    /**
+     * Streams the dataset row by row.
+     *
+     * @return the dates that received a row, in ascending order
+     */
+    public List<LocalDate> generate(RowSink sink) throws IOException, SQLException {
+        return generate(sink, new BitSet());
+    }
+
+    /**
+     * Streams the dataset row by row, marking every non-blank cell in {@code quoted}
+     * at {@code dateIndex * currencies + currencyIndex}.
+     */
+    private List<LocalDate> generate(RowSink sink, BitSet quoted) throws IOException, SQLException {
+        Random random = new Random(spec.seed());
+        int currencies = spec.currencies();
+        double[] rates = new double[currencies];
+        double[] volatility = new double[currencies];
+        int[] scales = new int[currencies];
+        int[] listedFrom = new int[currencies];
+        for (int i = 0; i < currencies; i++) {
+            rates[i] = Math.exp(Math.log(0.1) + random.nextDouble() * (Math.log(20_000) - Math.log(0.1)));
+            volatility[i] = 0.002 + random.nextDouble() * 0.008;
+            scales[i] = rates[i] < 1 ? 5 : rates[i] < 100 ? 4 : 2;
+            listedFrom[i] = random.nextDouble() < spec.lateListingProbability()
+                    ? random.nextInt(Math.max(1, spec.businessDays() * 3 / 5)) : 0;
+        }
+
+        List<LocalDate> dates = new ArrayList<>();
+        String[] cells = new String[currencies];
+        LocalDate date = spec.startDate();
+        for (int day = 0; day < spec.businessDays(); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (int i = 0; i < currencies; i++) {
+                rates[i] *= Math.exp(random.nextGaussian() * volatility[i]);
+            }
+            boolean holiday = random.nextDouble() < spec.holidayProbability();
+            if (!holiday) {
+                for (int i = 0; i < currencies; i++) {
+                    boolean blank = day < listedFrom[i] || random.nextDouble() < spec.missingCellProbability();
+                    cells[i] = blank ? null : format(rates[i], scales[i]);
+                    if (!blank) {
+                        quoted.set(dates.size() * currencies + i);
+                    }
+                }
+                sink.accept(date, cells);
+                dates.add(date);
+            }
+            day++;
+        }
+        return dates;
+    }
+
+    /**
+     * Writes the dataset as CSV.
+     */
+    public GeneratedDataset writeCsv(Path file) throws IOException {
+        List<String> codes = currencyCodes();
+        long[] rateCount = new long[1];
+        BitSet quoted = new BitSet();
+        List<LocalDate> dates;
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("date," + String.join(",", codes));
+            writer.newLine();
+            StringBuilder line = new StringBuilder();
+            dates = generate((date, cells) -> {
+                line.setLength(0);
+                line.append(date.format(FORMATTER));
+                for (String cell : cells) {
+                    line.append(',');
+                    if (cell != null) {
+                        line.append(cell);
+                        rateCount[0]++;
+                    }
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }, quoted);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unexpected SQL error while writing CSV", e);
+        }
+        return new GeneratedDataset(file.toString(), dates, codes, rateCount[0], quoted);
+    }
+
+    /**
+     * Writes the dataset into the {@code currency} and {@code currency_rates} tables of an H2 database,
+     * creating them with the schema the application maps if they do not exist yet.
+     * Like an import of the application, the rates are recorded as one completed {@code import_batch} whose id
+     * they carry as version, so the change feed serves them from the start.
+     *
+     * @param jdbcUrl for example {@code jdbc:h2:file:./build/datasets/rates}
+     */
+    public GeneratedDataset writeH2(String jdbcUrl, String user, String password) throws SQLException {
+        List<String> codes = currencyCodes();
+        long[] rateCount = new long[1];
+        BitSet quoted = new BitSet();
+        List<LocalDate> dates;
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+            connection.setAutoCommit(false);
+            createSchema(connection);
+            long[] currencyIds = insertCurrencies(connection, codes);
+            long version = insertImportBatch(connection);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO currency_rates (date, currency_id, rate, version) VALUES (?, ?, ?, ?)")) {
+                dates = generate((date, cells) -> {
+                    for (int i = 0; i < cells.length; i++) {
+                        if (cells[i] == null) {
+                            continue;
+                        }
+                        insert.setObject(1, date);
+                        insert.setLong(2, currencyIds[i]);
+                        insert.setDouble(3, Double.parseDouble(cells[i]));
+                        insert.setLong(4, version);
+                        insert.addBatch();
+                        if (++rateCount[0] % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                }, quoted);
+                insert.executeBatch();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unexpected I/O error while writing to H2", e);
+            }
+            completeImportBatch(connection, version, rateCount[0]);
+            connection.commit();
+        }
+        return new GeneratedDataset(jdbcUrl, dates, codes, rateCount[0], quoted);
+    }
+
+    private static void createSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS currency ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "currency_name VARCHAR(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE IF NOT EXISTS currency_rates ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "date DATE NOT NULL, "
+                    + "rate FLOAT(53) NOT NULL, "
+                    + "version BIGINT NOT NULL, "
+                    + "currency_id BIGINT NOT NULL REFERENCES currency(id))");
+            statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_date_currency ON currency_rates (date, currency_id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_version ON currency_rates (version, id)");
+            statement.execute("CREATE TABLE IF NOT EXISTS import_batch ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "started_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, "
+                    + "completed_at TIMESTAMP(6) WITH TIME ZONE, "
+                    + "rate_count INTEGER NOT NULL)");
+        }
+    }
+
+    private static long[] insertCurrencies(Connection connection, List<String> codes) throws SQLException {
+        long[] ids = new long[codes.size()];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO currency (currency_name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < codes.size(); i++) {
+                insert.setString(1, codes.get(i));
+                insert.executeUpdate();
+                try (var keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    ids[i] = keys.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return the id of a new, still running import batch, used as the version of the generated rates
+     */
+    private static long insertImportBatch(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO import_batch (started_at, rate_count) VALUES (?, 0)", Statement.RETURN_GENERATED_KEYS)) {
+            insert.setObject(1, OffsetDateTime.now(ZoneOffset.UTC));
+            insert.executeUpdate();
+            try (var keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private static void completeImportBatch(Connection connection, long id, long rateCount) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE import_batch SET completed_at = ?, rate_count = ? WHERE id = ?")) {
+            update.setObject(1, OffsetDateTime.now(ZoneOffset.UTC));
+            update.setInt(2, Math.toIntExact(rateCount));
+            update.setLong(3, id);
+            update.executeUpdate();
+        }
+    }
+
+    private static String format(double rate, int scale) {
+        return BigDecimal.valueOf(rate).setScale(scale, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Command line entry point. Arguments are {@code --name=value} pairs:
+     * {@code --output} (a {@code .csv} path or {@code jdbc:h2:} URL, required), {@code --days}, {@code --currencies},
+     * {@code --seed}, {@code --start} (ISO date) and {@code --no-gaps}.
+     */
+    public static void main(String[] args) throws Exception {
+        String output = null;
+        int days = 260 * 25;
+        int currencies = 150;
+        long seed = 42;
+        LocalDate start = null;
+        boolean gaps = true;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            String value = parts.length > 1 ? parts[1] : "";
+            switch (parts[0]) {
+                case "--output" -> output = value;
+                case "--days" -> days = Integer.parseInt(value);
+                case "--currencies" -> currencies = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--start" -> start = LocalDate.parse(value);
+                case "--no-gaps" -> gaps = false;
+                default -> throw new IllegalArgumentException("Unknown argument '" + arg + "'");
+            }
+        }
+        if (output == null) {
+            throw new IllegalArgumentException("--output is required");
+        }
+
+        DatasetSpec spec = DatasetSpec.of(days, currencies, seed);
+        spec = start != null ? spec.withStartDate(start) : spec;
+        spec = gaps ? spec : spec.withoutGaps();
+        RatesDatasetGenerator generator = new RatesDatasetGenerator(spec);
+        GeneratedDataset dataset = output.startsWith("jdbc:")
+                ? generator.writeH2(output, "cm", "cm")
+                : generator.writeCsv(Path.of(output));
+        System.out.printf("Wrote %d rates for %d dates and %d currencies to %s%n",
+                dataset.rateCount(), dataset.dates().size(), dataset.currencies().size(), dataset.location());
+    }
+}